@@ -3,8 +3,10 @@ package com.example.phone_comparison_backend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class Application {
 
     public static void main(String[] args) {
@@ -17,6 +19,7 @@ public class Application {
 //DataLoader.java:--------------------------------------------------------------------------------------------------
 package com.example.phone_comparison_backend;
 
+import com.example.phone_comparison_backend.service.CatalogSnapshotService;
 import com.example.phone_comparison_backend.service.PhoneService;
 import com.example.phone_comparison_backend.repository.PhoneRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -32,6 +35,9 @@ public class DataLoader implements CommandLineRunner {
     @Autowired
     private PhoneRepository phoneRepository;
 
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
     @Override
     public void run(String... args) throws Exception {
         // Check if the database is empty before loading data from CSV
@@ -40,10 +46,14 @@ public class DataLoader implements CommandLineRunner {
             System.out.println("Data loaded successfully from CSV to database.");
         } else {
             System.out.println("Data already exists in the database. Skipping CSV loading.");
+            int backfilled = phoneService.backfillParsedSpecs();
+            if (backfilled > 0) {
+                System.out.println("Parsed spec columns backfilled for " + backfilled + " phones.");
+            }
         }
 
-        // Initialize the Trie with data from the database
-        phoneService.initializeSpellCheck();
+        // Build the in-memory catalog snapshot; the spell check Trie is rebuilt from it on every reload
+        catalogSnapshotService.reload();
     }
 }
 
@@ -56,22 +66,42 @@ public class DataLoader implements CommandLineRunner {
 package com.example.phone_comparison_backend.controller;
 
 import com.example.phone_comparison_backend.repository.PhoneRepository;
+import com.example.phone_comparison_backend.service.CatalogExportService;
+import com.example.phone_comparison_backend.service.CatalogSnapshotService;
 import com.example.phone_comparison_backend.service.FrequencyCountService;
 import com.example.phone_comparison_backend.service.InvertedIndexService;
+import com.example.phone_comparison_backend.service.PhoneFacetService;
 import com.example.phone_comparison_backend.service.PhoneService;
+import com.example.phone_comparison_backend.service.PriceIndexService;
+import com.example.phone_comparison_backend.service.SearchTermService;
 import com.example.phone_comparison_backend.service.SpellCheckService;
 import com.example.phone_comparison_backend.service.PhoneSorterService;
+import com.example.phone_comparison_backend.service.TrendingSearchService;
+import com.example.phone_comparison_backend.util.SpecParser;
 import com.example.phone_comparison_backend.util.WordCompletion;
+import com.example.phone_comparison_backend.model.CatalogSnapshot;
+import com.example.phone_comparison_backend.model.FacetResult;
 import com.example.phone_comparison_backend.model.Phone;
+import com.example.phone_comparison_backend.model.PhonePage;
+import com.example.phone_comparison_backend.model.PriceRangeResult;
 import com.example.phone_comparison_backend.model.SearchTerm;
+import com.example.phone_comparison_backend.model.SearchTermFlushStats;
 import com.example.phone_comparison_backend.model.SortRequest;
+import com.example.phone_comparison_backend.model.SpellSuggestion;
+import com.example.phone_comparison_backend.model.RankedDocument;
+import com.example.phone_comparison_backend.model.TextHit;
+import com.example.phone_comparison_backend.model.TextSearchResult;
 import com.example.phone_comparison_backend.model.PhoneComparison;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -81,6 +111,18 @@ import java.util.Map;
 @RequestMapping("/phones")
 public class PhoneController {
 
+    private static final int MAX_COMPLETIONS = 50; // Upper bound on word-completion payloads
+    private static final int MAX_TEXT_HITS = 1000; // Upper bound on text search hits per request
+    private static final int MAX_SCAN_HITS = 10_000; // Default and upper bound on offsets per file scan
+    private static final int MAX_SPELLING_DISTANCE = 3; // Upper bound on the edit distance of spelling suggestions
+    private static final int MAX_SPELLING_SUGGESTIONS = 50; // Upper bound on suggestions per spellcheck response
+    private static final int MAX_WORD_COUNT_TERMS = 1000; // Upper bound on terms per batch word count
+    private static final int DEFAULT_FACET_LIMIT = 500; // Ids returned by /facets unless limit is given
+    private static final int MAX_FACET_IDS = 10_000; // Upper bound on ids per facet response
+    private static final int MAX_PRICE_RANGE_PHONES = 1000; // Upper bound on phones per price-range response
+    private static final int DEFAULT_SEARCH_STATS_LIMIT = 100; // Terms returned by /search-stats unless limit is given
+    private static final int MAX_SEARCH_STATS = 1000; // Upper bound on terms per /search-stats response
+
     @Autowired
     private PhoneService phoneService;
 
@@ -96,6 +138,24 @@ public class PhoneController {
     @Autowired
     private InvertedIndexService invertedIndexService;
 
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private CatalogExportService catalogExportService;
+
+    @Autowired
+    private SearchTermService searchTermService;
+
+    @Autowired
+    private TrendingSearchService trendingSearchService;
+
+    @Autowired
+    private PhoneFacetService phoneFacetService;
+
+    @Autowired
+    private PriceIndexService priceIndexService;
+
 
     private final PhoneRepository phoneRepository;
 
@@ -126,8 +186,55 @@ public class PhoneController {
 
     // Endpoint to get all phones
     @GetMapping
-    public List<Phone> getAllPhones() {
-        return phoneService.getAllPhones();
+    public ResponseEntity<List<Phone>> getAllPhones() {
+        CatalogSnapshot snapshot = catalogSnapshotService.getSnapshot();
+        return ResponseEntity.ok()
+                .header("X-Catalog-Version", String.valueOf(snapshot.getVersion()))
+                .body(new ArrayList<>(snapshot.getPhones()));
+    }
+
+    // Endpoint to page through phones by id; view=summary returns only id, model, price and company
+    @GetMapping("/page")
+    public ResponseEntity<PhonePage<?>> getPhonePage(@RequestParam(required = false) Long after,
+                                                     @RequestParam(required = false) Integer size,
+                                                     @RequestParam(defaultValue = "full") String view) {
+        if ("summary".equalsIgnoreCase(view)) {
+            return ResponseEntity.ok(phoneService.getPhoneSummaryPage(after, size));
+        } else if ("full".equalsIgnoreCase(view)) {
+            return ResponseEntity.ok(phoneService.getPhonePage(after, size));
+        }
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+    }
+
+    // Endpoint to stream the full catalog as newline-delimited JSON for downstream jobs
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportPhones() {
+        StreamingResponseBody body = out -> catalogExportService.exportPhones(out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // Endpoint to see which catalog snapshot requests are currently answered from
+    @GetMapping("/catalog/version")
+    public Map<String, Object> getCatalogVersion() {
+        CatalogSnapshot snapshot = catalogSnapshotService.getSnapshot();
+        return Map.of("version", snapshot.getVersion(),
+                "phoneCount", snapshot.size(),
+                "builtAt", snapshot.getBuiltAt());
+    }
+
+    // Endpoint to rebuild the catalog snapshot after the phone table has changed. Each reload reads
+    // the whole phone table, so callers get 429 while one ran within the configured minimum interval.
+    @PostMapping("/catalog/reload")
+    public ResponseEntity<Map<String, Object>> reloadCatalog() {
+        CatalogSnapshot snapshot = catalogSnapshotService.requestReload();
+        if (snapshot == null) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("Retry-After", String.valueOf(catalogSnapshotService.getReloadRetryAfterSeconds()))
+                    .body(Map.of("error", "catalog was reloaded recently, try again later"));
+        }
+        return ResponseEntity.ok(Map.of("version", snapshot.getVersion(), "phoneCount", snapshot.size()));
     }
 
     @GetMapping("/compare")
@@ -155,10 +262,102 @@ public ResponseEntity<Map<String, Object>> comparePhones(@RequestParam Long phon
         return phoneService.searchPhones(model, company);
     }
 
-    // Endpoint to get search term statistics
+    // Endpoint for price range queries, e.g. /phones/price-range?min=300&max=600 or, for the 5 most
+    // expensive Samsungs, /phones/price-range?company=Samsung&order=desc&limit=5. Prices are in dollars.
+    @GetMapping("/price-range")
+    public ResponseEntity<?> getPhonesByPriceRange(@RequestParam(required = false) String min,
+                                                   @RequestParam(required = false) String max,
+                                                   @RequestParam(required = false) String company,
+                                                   @RequestParam(defaultValue = "asc") String order,
+                                                   @RequestParam(defaultValue = "50") int limit) {
+        Long minCents;
+        Long maxCents;
+        try {
+            minCents = priceParam("min", min);
+            maxCents = priceParam("max", max);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        if (!"asc".equalsIgnoreCase(order) && !"desc".equalsIgnoreCase(order)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "order must be asc or desc"));
+        }
+        if (limit < 0) {
+            return ResponseEntity.badRequest().body(Map.of("error", "limit must not be negative"));
+        }
+        PriceRangeResult result = priceIndexService.findByPriceRange(minCents, maxCents, company,
+                "desc".equalsIgnoreCase(order), Math.min(limit, MAX_PRICE_RANGE_PHONES));
+        return ResponseEntity.ok()
+                .header("X-Catalog-Version", String.valueOf(result.getCatalogVersion()))
+                .body(result);
+    }
+
+    // Dollars as typed ("300", "$599.99") in cents, or null when the parameter is absent
+    private static Long priceParam(String name, String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        Long cents = SpecParser.parseCents(value);
+        if (cents == null) {
+            throw new IllegalArgumentException(name + " must be a price such as 300 or 599.99");
+        }
+        return cents;
+    }
+
+    // Endpoint for faceted filtering, e.g. /phones/facets?company=Samsung&company=Apple&is5G=Yes&minRam=8GB&maxPrice=600.
+    // Repeated values of one attribute are alternatives; different attributes and ranges must all match.
+    // Returns the matching ids plus, per attribute, how many matches have each value.
+    @GetMapping("/facets")
+    public ResponseEntity<?> getFacets(@RequestParam MultiValueMap<String, String> params) {
+        int limit = DEFAULT_FACET_LIMIT;
+        Map<String, List<String>> selections = new HashMap<>(params);
+        Map<String, String> ranges = new HashMap<>();
+        for (String range : PhoneFacetService.RANGE_PARAMETERS) {
+            List<String> bound = selections.remove(range);
+            if (bound != null) {
+                ranges.put(range, bound.get(0));
+            }
+        }
+        List<String> limitParam = selections.remove("limit");
+        if (limitParam != null) {
+            try {
+                limit = Integer.parseInt(limitParam.get(0));
+            } catch (NumberFormatException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", "limit must be a number"));
+            }
+            if (limit < 0) {
+                return ResponseEntity.badRequest().body(Map.of("error", "limit must not be negative"));
+            }
+        }
+        try {
+            return ResponseEntity.ok(phoneFacetService.search(selections, ranges, Math.min(limit, MAX_FACET_IDS)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Endpoint to get search term statistics, most searched first.
+    // window=5m|1h|1d answers "what's trending" from the in-memory heavy-hitters sketch;
+    // without a window the all-time counts come from the database. At most MAX_SEARCH_STATS terms.
     @GetMapping("/search-stats")
-    public List<SearchTerm> getSearchStatistics() {
-        return phoneService.getSearchStatistics();
+    public ResponseEntity<?> getSearchStatistics(@RequestParam(required = false) String window,
+                                                 @RequestParam(required = false) Integer limit) {
+        if (limit != null && limit <= 0) {
+            return ResponseEntity.badRequest().body(Map.of("error", "limit must be positive"));
+        }
+        if (window == null || window.isEmpty() || "all".equalsIgnoreCase(window)) {
+            int count = limit == null ? DEFAULT_SEARCH_STATS_LIMIT : Math.min(limit, MAX_SEARCH_STATS);
+            return ResponseEntity.ok(phoneService.getTopSearchTerms(count));
+        }
+        if (!trendingSearchService.isWindow(window)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "window must be one of " + trendingSearchService.getWindows() + " or all"));
+        }
+        return ResponseEntity.ok(trendingSearchService.getTrending(window, limit == null ? 10 : Math.min(limit, MAX_SEARCH_STATS)));
+    }
+
+    // Endpoint to monitor the write-behind search term buffer (pending counts, flush lag)
+    @GetMapping("/search-stats/flush")
+    public SearchTermFlushStats getSearchTermFlushStats() {
+        return searchTermService.getFlushStats();
     }
 
     // Endpoint to get frequency of a search term
@@ -187,6 +386,30 @@ public ResponseEntity<Map<String, Object>> comparePhones(@RequestParam Long phon
         }
     }
 
+    // Endpoint to get ranked spelling suggestions together with their edit distances (mode=bktree or trie)
+    @GetMapping("/spellcheck/suggestions")
+    public ResponseEntity<List<SpellSuggestion>> getSpellingSuggestions(@RequestParam String searchTerm,
+                                                                        @RequestParam(defaultValue = "5") int limit,
+                                                                        @RequestParam(required = false) Integer maxDistance,
+                                                                        @RequestParam(defaultValue = "bktree") String mode) {
+        if (searchTerm == null || searchTerm.trim().isEmpty() || limit <= 0) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(List.of());
+        }
+        if (maxDistance != null && maxDistance < 0) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(List.of());
+        }
+        String normalizedSearchTerm = searchTerm.trim().toLowerCase();
+        int distance = maxDistance != null ? maxDistance : spellCheckService.defaultMaxDistance(normalizedSearchTerm);
+        // Both modes do work (and the trie walk allocates rows) in proportion to the radius
+        distance = Math.min(distance, Math.min(normalizedSearchTerm.length(), MAX_SPELLING_DISTANCE));
+        // The ranked heap and the trie walk both grow with the limit
+        int count = Math.min(limit, MAX_SPELLING_SUGGESTIONS);
+        if ("trie".equalsIgnoreCase(mode)) {
+            return ResponseEntity.ok(spellCheckService.suggestWordsFromTrie(normalizedSearchTerm, count, distance));
+        }
+        return ResponseEntity.ok(spellCheckService.suggestWordsRanked(normalizedSearchTerm, count, distance));
+    }
+
     // New endpoint to sort phones by price or model
     @PostMapping("/sort")
     public List<Phone> sortPhones(@RequestBody SortRequest sortRequest) {
@@ -213,9 +436,19 @@ public ResponseEntity<Map<String, Object>> comparePhones(@RequestParam Long phon
         return phoneService.getDatabaseWordCount(term);
     }
 
+    // Endpoint to count many terms in one pass over the catalog, e.g. ["samsung", "pro", "5g"]
+    @PostMapping("/database-word-count/batch")
+    public ResponseEntity<?> getDatabaseWordCounts(@RequestBody List<String> terms) {
+        if (terms.size() > MAX_WORD_COUNT_TERMS) {
+            return ResponseEntity.badRequest().body(Map.of("error", "at most " + MAX_WORD_COUNT_TERMS + " terms per request"));
+        }
+        return ResponseEntity.ok(phoneService.getDatabaseWordCounts(terms));
+    }
+
     // New endpoint for word completion
     @GetMapping("/word-completion")
-    public ResponseEntity<List<String>> completeWord(@RequestParam String prefix) {
+    public ResponseEntity<List<String>> completeWord(@RequestParam String prefix,
+                                                     @RequestParam(defaultValue = "10") int limit) {
         System.out.println("Received prefix: " + prefix);  // Debugging line
 
         // Validate input
@@ -224,17 +457,9 @@ public ResponseEntity<Map<String, Object>> comparePhones(@RequestParam Long phon
             return new ResponseEntity<>(List.of("Invalid input: Prefix cannot be null or empty."), HttpStatus.BAD_REQUEST);
         }
 
-        // Fetch phone models based on the prefix
-        List<String> models = phoneService.getPhoneModelsByPrefix(prefix);
-        System.out.println("Phone models fetched: " + models);  // Debugging line
-
-        // Insert the fetched phone models into the WordCompletion service (AVL tree)
-        for (String model : models) {
-            wordCompletionService.insert(model);  // Insert each model into the AVL tree
-        }
-
-        // Use the WordCompletion service to find suggestions based on the prefix
-        List<String> suggestions = wordCompletionService.findSuggestions(prefix);
+        // Use the prebuilt WordCompletion index to find the most searched completions of the prefix
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_COMPLETIONS));
+        List<String> suggestions = wordCompletionService.findTopSuggestions(prefix, boundedLimit);
         System.out.println("Suggestions found: " + suggestions);  // Debugging line
 
         // If no suggestions were found, return a message
@@ -246,7 +471,7 @@ public ResponseEntity<Map<String, Object>> comparePhones(@RequestParam Long phon
         return new ResponseEntity<>(suggestions, HttpStatus.OK);
     }
 
-    // Endpoint to get phone models by prefix and insert them into WordCompletion
+    // Endpoint to get phone models by prefix
     @GetMapping("/models")
     public List<String> getPhoneModelsByPrefix(@RequestParam String prefix) {
         System.out.println("Received prefix: " + prefix); // Debugging line
@@ -255,8 +480,14 @@ public ResponseEntity<Map<String, Object>> comparePhones(@RequestParam Long phon
         return models;
     }
 
+    // mode=index (default) answers from the text index; mode=scan reads the files in parallel.
+    // maxFiles / maxHits stop the search (and cancel outstanding file scans) once reached; a scan
+    // returns at most MAX_SCAN_HITS offsets, which is also its default.
     @GetMapping("/search-word")
-    public ResponseEntity<Object> searchWord(@RequestParam String word) {
+    public ResponseEntity<Object> searchWord(@RequestParam String word,
+                                             @RequestParam(defaultValue = "index") String mode,
+                                             @RequestParam(required = false) Integer maxFiles,
+                                             @RequestParam(required = false) Integer maxHits) {
         System.out.println("Received word to search: " + word); // Debug statement to log the received word
 
         // Check if the search word is empty
@@ -266,15 +497,71 @@ public ResponseEntity<Map<String, Object>> comparePhones(@RequestParam Long phon
         }
 
         // Call the service to search for the word in files
-        Map<String, Map<Integer, String>> searchResults = invertedIndexService.searchWord(word);
+        int fileLimit = maxFiles != null && maxFiles > 0 ? maxFiles : Integer.MAX_VALUE;
+        int hitLimit = maxHits != null && maxHits > 0 ? maxHits : Integer.MAX_VALUE;
+        // Scan mode reports long byte offsets, index mode int character offsets
+        TextSearchResult<? extends Map<String, ?>> search = "scan".equalsIgnoreCase(mode)
+                ? invertedIndexService.scan(word, fileLimit, Math.min(hitLimit, MAX_SCAN_HITS))
+                : invertedIndexService.search(word, fileLimit, hitLimit);
+        Map<String, ?> searchResults = search.getResults();
+        String generation = String.valueOf(search.getGeneration());
 
         if (searchResults.isEmpty()) {
             System.out.println("No results found for the word: " + word);
-            return ResponseEntity.ok(new HashMap<>());  // Return an empty JSON object
+            return ResponseEntity.ok().header("X-Index-Generation", generation).body(new HashMap<>());  // Return an empty JSON object
         } else {
             System.out.println("Returning search results for the word: " + word);
-            return ResponseEntity.ok(searchResults);  // Return the actual search results as a JSON response
+            return ResponseEntity.ok().header("X-Index-Generation", generation).body(searchResults);  // Return the actual search results as a JSON response
+        }
+    }
+
+    // Endpoint to find a word or exact phrase in the text files, with line numbers and snippets
+    @GetMapping("/search-word/hits")
+    public ResponseEntity<List<TextHit>> searchWordHits(@RequestParam String query,
+                                                        @RequestParam(defaultValue = "50") int maxHits) {
+        TextSearchResult<List<TextHit>> search = invertedIndexService.searchHits(query, Math.min(maxHits, MAX_TEXT_HITS));
+        return ResponseEntity.ok()
+                .header("X-Index-Generation", String.valueOf(search.getGeneration()))
+                .body(search.getResults());
+    }
+
+    // Endpoint to rank text files by BM25 relevance to the query words
+    @GetMapping("/search-word/ranked")
+    public ResponseEntity<List<RankedDocument>> searchWordRanked(@RequestParam String query,
+                                                                 @RequestParam(defaultValue = "10") int k) {
+        TextSearchResult<List<RankedDocument>> search = invertedIndexService.searchRanked(query, Math.min(k, MAX_TEXT_HITS));
+        return ResponseEntity.ok()
+                .header("X-Index-Generation", String.valueOf(search.getGeneration()))
+                .body(search.getResults());
+    }
+
+    // Endpoint to find text files matching a boolean query, e.g. "5g AND samsung NOT refurbished".
+    // AND is implied between words; OR, NOT and parentheses are supported.
+    @GetMapping("/search-word/boolean")
+    public ResponseEntity<?> searchWordBoolean(@RequestParam String query,
+                                               @RequestParam(defaultValue = "100") int maxFiles) {
+        TextSearchResult<List<String>> search;
+        try {
+            search = invertedIndexService.searchBoolean(query, Math.min(maxFiles, MAX_TEXT_HITS));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
+        return ResponseEntity.ok()
+                .header("X-Index-Generation", String.valueOf(search.getGeneration()))
+                .body(search.getResults());
+    }
+
+    // Endpoint to rebuild the text file index from scratch; changes are normally picked up by the directory watcher
+    @PostMapping("/search-word/reindex")
+    public Map<String, Object> reindexTextFiles() {
+        invertedIndexService.rebuildIndex();
+        return invertedIndexService.getIndexStatus();
+    }
+
+    // Endpoint to inspect the text file index (generation, segments, indexed and tombstoned files)
+    @GetMapping("/search-word/index")
+    public Map<String, Object> getTextIndexStatus() {
+        return invertedIndexService.getIndexStatus();
     }
 }
 
@@ -468,6 +755,16 @@ public class Phone {
     private String bluetoothVersion;
     private String hasFastCharging;
 
+    // Normalized forms of the text fields above, parsed once at ingest (null when unparseable)
+    private Integer ramMb;
+    private Integer romMb;
+    private Long priceCents;
+    private Boolean fiveGSupported;
+    private Boolean dualSimSupported;
+    private Boolean fastChargingSupported;
+    private Float bluetoothVersionNumber;
+    private Boolean specsParsed;  // Set once the columns above are filled, even if some stayed null
+
     public Phone() {
     }
 
@@ -583,6 +880,70 @@ public class Phone {
         this.hasFastCharging = hasFastCharging;
     }
 
+    public Integer getRamMb() {
+        return ramMb;
+    }
+
+    public void setRamMb(Integer ramMb) {
+        this.ramMb = ramMb;
+    }
+
+    public Integer getRomMb() {
+        return romMb;
+    }
+
+    public void setRomMb(Integer romMb) {
+        this.romMb = romMb;
+    }
+
+    public Long getPriceCents() {
+        return priceCents;
+    }
+
+    public void setPriceCents(Long priceCents) {
+        this.priceCents = priceCents;
+    }
+
+    public Boolean getFiveGSupported() {
+        return fiveGSupported;
+    }
+
+    public void setFiveGSupported(Boolean fiveGSupported) {
+        this.fiveGSupported = fiveGSupported;
+    }
+
+    public Boolean getDualSimSupported() {
+        return dualSimSupported;
+    }
+
+    public void setDualSimSupported(Boolean dualSimSupported) {
+        this.dualSimSupported = dualSimSupported;
+    }
+
+    public Boolean getFastChargingSupported() {
+        return fastChargingSupported;
+    }
+
+    public void setFastChargingSupported(Boolean fastChargingSupported) {
+        this.fastChargingSupported = fastChargingSupported;
+    }
+
+    public Float getBluetoothVersionNumber() {
+        return bluetoothVersionNumber;
+    }
+
+    public void setBluetoothVersionNumber(Float bluetoothVersionNumber) {
+        this.bluetoothVersionNumber = bluetoothVersionNumber;
+    }
+
+    public Boolean getSpecsParsed() {
+        return specsParsed;
+    }
+
+    public void setSpecsParsed(Boolean specsParsed) {
+        this.specsParsed = specsParsed;
+    }
+
     @Override
     public String toString() {
         return "Phone{" +
@@ -599,6 +960,10 @@ public class Phone {
                 ", isDualSim='" + isDualSim + '\'' +
                 ", bluetoothVersion='" + bluetoothVersion + '\'' +
                 ", hasFastCharging='" + hasFastCharging + '\'' +
+                ", ramMb=" + ramMb +
+                ", romMb=" + romMb +
+                ", priceCents=" + priceCents +
+                ", specsParsed=" + specsParsed +
                 '}';
     }
 }
@@ -646,6 +1011,76 @@ public class PhoneComparison {
 }
 
 
+//PhonePage.java:---------------------------------------------------------------------------------
+package com.example.phone_comparison_backend.model;
+
+import java.util.List;
+
+// One page of a keyset-paginated listing; pass nextCursor as "after" to fetch the following page
+public class PhonePage<T> {
+
+    private final List<T> items;
+    private final Long nextCursor;     // null when this is the last page
+    private final long catalogVersion;
+
+    public PhonePage(List<T> items, Long nextCursor, long catalogVersion) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.catalogVersion = catalogVersion;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public long getCatalogVersion() {
+        return catalogVersion;
+    }
+}
+
+
+
+//PhoneSummary.java:------------------------------------------------------------------------------
+package com.example.phone_comparison_backend.model;
+
+// Lightweight projection of Phone for dropdowns and list views (no image or product links)
+public class PhoneSummary {
+
+    private final Long id;
+    private final String model;
+    private final Float price;
+    private final String company;
+
+    public PhoneSummary(Phone phone) {
+        this.id = phone.getId();
+        this.model = phone.getModel();
+        this.price = phone.getPrice();
+        this.company = phone.getCompany();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public Float getPrice() {
+        return price;
+    }
+
+    public String getCompany() {
+        return company;
+    }
+}
+
+
+
 //RankablePhone.java:-------------------------------------------------------------------------------
 
 package com.example.phone_comparison_backend.model;
@@ -680,7 +1115,9 @@ package com.example.phone_comparison_backend.model;
 
 import jakarta.persistence.*;
 
+// One row per term; the unique key lets SearchTermService upsert counts in a single batch
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_search_term_term", columnNames = "term"))
 public class SearchTerm {
 
     @Id
@@ -726,1064 +1163,6467 @@ public class SearchTerm {
 
 
 
-//SortRequest.java:--------------------------------------------------------------------------------
+//SearchTermFlushStats.java:----------------------------------------------------------------------
 package com.example.phone_comparison_backend.model;
 
-public class SortRequest {
+// Health of the write-behind search term buffer
+public class SearchTermFlushStats {
 
-    private String sortBy;  // price or model
-    private boolean ascending;  // true for ascending, false for descending
+    private final int pendingTerms;
+    private final long pendingIncrements;
+    private final long flushLagMs;          // Age of the oldest unflushed increment, 0 when nothing is pending
+    private final long lastFlushAt;         // Epoch millis, 0 before the first flush
+    private final long lastFlushDurationMs;
+    private final int lastFlushTerms;
+    private final long totalFlushedIncrements;
+    private final long failedFlushes;
 
-    // Getters and setters
-    public String getSortBy() {
-        return sortBy;
+    public SearchTermFlushStats(int pendingTerms, long pendingIncrements, long flushLagMs, long lastFlushAt,
+                                long lastFlushDurationMs, int lastFlushTerms, long totalFlushedIncrements,
+                                long failedFlushes) {
+        this.pendingTerms = pendingTerms;
+        this.pendingIncrements = pendingIncrements;
+        this.flushLagMs = flushLagMs;
+        this.lastFlushAt = lastFlushAt;
+        this.lastFlushDurationMs = lastFlushDurationMs;
+        this.lastFlushTerms = lastFlushTerms;
+        this.totalFlushedIncrements = totalFlushedIncrements;
+        this.failedFlushes = failedFlushes;
     }
 
-    public void setSortBy(String sortBy) {
-        this.sortBy = sortBy;
+    public int getPendingTerms() {
+        return pendingTerms;
     }
 
-    public boolean isAscending() {
-        return ascending;
+    public long getPendingIncrements() {
+        return pendingIncrements;
     }
 
-    public void setAscending(boolean ascending) {
-        this.ascending = ascending;
+    public long getFlushLagMs() {
+        return flushLagMs;
     }
-}
 
+    public long getLastFlushAt() {
+        return lastFlushAt;
+    }
 
-//Repository:
+    public long getLastFlushDurationMs() {
+        return lastFlushDurationMs;
+    }
 
-//PhoneRepository:------------------------------------------------------------------------------
-package com.example.phone_comparison_backend.repository;
+    public int getLastFlushTerms() {
+        return lastFlushTerms;
+    }
 
-import com.example.phone_comparison_backend.model.Phone;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
+    public long getTotalFlushedIncrements() {
+        return totalFlushedIncrements;
+    }
 
-import java.util.List;
+    public long getFailedFlushes() {
+        return failedFlushes;
+    }
+}
 
-public interface PhoneRepository extends JpaRepository<Phone, Long> {
 
-    // Existing methods
-    List<Phone> findByCompany(String company); // Add query method for company
-    List<Phone> findByModelContaining(String model); // Example search by model
-    List<Phone> findByModelContainingAndCompany(String model, String company); // Search by model and company
-    int countByModelContainingOrCompanyContaining(String model, String company);
 
-    @Query("SELECT p.model FROM Phone p WHERE LOWER(p.model) LIKE CONCAT(LOWER(:prefix), '%')")
-    List<String> findPhoneModelsByPrefix(@Param("prefix") String prefix);
+//RankedDocument.java:----------------------------------------------------------------------------
+package com.example.phone_comparison_backend.model;
+
+// A text file with its relevance score for a ranked query
+public class RankedDocument {
+
+    private final String file;
+    private final double score;
+
+    public RankedDocument(String file, double score) {
+        this.file = file;
+        this.score = score;
+    }
+
+    public String getFile() {
+        return file;
+    }
 
+    public double getScore() {
+        return score;
+    }
 }
 
 
 
-//SearchTermRepository:---------------------------------------------------------------------------------------------------
-package com.example.phone_comparison_backend.repository;
+//TextHit.java:-----------------------------------------------------------------------------------
+package com.example.phone_comparison_backend.model;
 
-import com.example.phone_comparison_backend.model.SearchTerm;
-import org.springframework.data.jpa.repository.JpaRepository;
-import java.util.Optional;
+// One word or phrase occurrence in a text file
+public class TextHit {
 
-public interface SearchTermRepository extends JpaRepository<SearchTerm, Long> {
-    Optional<SearchTerm> findByTerm(String term);
-}
+    private final String file;
+    private final int line;       // 1-based
+    private final int offset;     // Char offset of the first word
+    private final String snippet; // Surrounding text from the same line; null when unavailable
 
+    public TextHit(String file, int line, int offset, String snippet) {
+        this.file = file;
+        this.line = line;
+        this.offset = offset;
+        this.snippet = snippet;
+    }
 
+    public String getFile() {
+        return file;
+    }
 
-//Service:
+    public int getLine() {
+        return line;
+    }
 
-//DocumentFileReaderService:------------------------------------------------------------------------------------------------
+    public int getOffset() {
+        return offset;
+    }
 
-package com.example.phone_comparison_backend.service;
+    public String getSnippet() {
+        return snippet;
+    }
+}
 
-import org.springframework.stereotype.Service;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 
-@Service
-public class DocumentFileReaderService {
+//TextSearchResult.java:--------------------------------------------------------------------------
+package com.example.phone_comparison_backend.model;
 
-    public String readFileContent(String filePath) throws IOException {
-        Path path = Paths.get(filePath);
-        System.out.println("File read successful");
-        return new String(Files.readAllBytes(path));  // Read all content of the file
+// Text file search results together with the index generation that produced them
+public class TextSearchResult<T> {
+
+    private final T results;
+    private final long generation;
+
+    public TextSearchResult(T results, long generation) {
+        this.results = results;
+        this.generation = generation;
+    }
+
+    public T getResults() {
+        return results;
+    }
+
+    public long getGeneration() {
+        return generation;
     }
 }
 
 
-//FrequencyCountService:---------------------------------------------------------------------------------------------------
 
-package com.example.phone_comparison_backend.service;
+//FacetResult.java:-------------------------------------------------------------------------------
+package com.example.phone_comparison_backend.model;
 
-import org.springframework.stereotype.Service;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
-@Service
-public class FrequencyCountService {
+// Phones matching a facet filter: their ids (up to the requested limit), how many matched in total,
+// and for every attribute how many of the matches have each value
+public class FacetResult {
 
-    // In-memory map to store search term frequencies
-    private Map<String, Integer> searchTermFrequencyMap = new HashMap<>();
+    private final List<Long> ids;
+    private final int total;
+    private final Map<String, Map<String, Integer>> facets;
+    private final long catalogVersion;
 
-    // Boyer-Moore algorithm for pattern matching
-    public int boyerMooreCount(String text, String pattern) {
-        int n = text.length();
-        int m = pattern.length();
-        int[] badCharacterShift = new int[256]; // ASCII size
+    public FacetResult(List<Long> ids, int total, Map<String, Map<String, Integer>> facets, long catalogVersion) {
+        this.ids = ids;
+        this.total = total;
+        this.facets = facets;
+        this.catalogVersion = catalogVersion;
+    }
 
-        // Initialize all occurrences as -1
-        for (int i = 0; i < 256; i++) {
-            badCharacterShift[i] = -1;
-        }
+    public List<Long> getIds() {
+        return ids;
+    }
 
-        // Build the bad character shift table
-        for (int i = 0; i < m; i++) {
-            badCharacterShift[pattern.charAt(i)] = i;
-        }
+    public int getTotal() {
+        return total;
+    }
 
-        int count = 0;
-        int shift = 0;
-        while (shift <= n - m) {
-            int j = m - 1;
-            while (j >= 0 && pattern.charAt(j) == text.charAt(shift + j)) {
-                j--;
-            }
+    public Map<String, Map<String, Integer>> getFacets() {
+        return facets;
+    }
 
-            if (j < 0) {
-                count++;
-                // Shift the pattern based on bad character heuristic
-                shift += (shift + m < n) ? m - badCharacterShift[text.charAt(shift + m)] : 1;
-            } else {
-                shift += Math.max(1, j - badCharacterShift[text.charAt(shift + j)]);
-            }
-        }
-        return count;
+    public long getCatalogVersion() {
+        return catalogVersion;
     }
+}
 
-    // Function to get the frequency of a search term
-    public int getSearchTermFrequency(String searchTerm) {
-        // Get the current frequency from the in-memory map
-        searchTermFrequencyMap.putIfAbsent(searchTerm, 0);  // Initialize if not present
-        int frequency = searchTermFrequencyMap.get(searchTerm);
-        // Increment the frequency for each search term
-        searchTermFrequencyMap.put(searchTerm, frequency + 1);
-        return frequency + 1;  // Return the updated frequency
+
+
+//PriceRangeResult.java:--------------------------------------------------------------------------
+package com.example.phone_comparison_backend.model;
+
+import java.util.List;
+
+// Phones within a price range, cheapest or most expensive first, and how many are in the range
+public class PriceRangeResult {
+
+    private final List<Phone> phones;
+    private final int total;
+    private final long catalogVersion;
+
+    public PriceRangeResult(List<Phone> phones, int total, long catalogVersion) {
+        this.phones = phones;
+        this.total = total;
+        this.catalogVersion = catalogVersion;
     }
 
-    // Optional: method to reset the frequency map (could be useful in future scenarios)
-    public void resetSearchTermFrequencies() {
-        searchTermFrequencyMap.clear();  // This will reset all the frequencies when needed
+    public List<Phone> getPhones() {
+        return phones;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public long getCatalogVersion() {
+        return catalogVersion;
     }
 }
 
-//InvertedIndexService.java:-----------------------------------------------------------------------------------------------------
-package com.example.phone_comparison_backend.service;
 
-import org.springframework.stereotype.Service;
 
-import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.util.*;
+//CatalogSnapshot.java:---------------------------------------------------------------------------
+package com.example.phone_comparison_backend.model;
 
-@Service
-public class InvertedIndexService {
+import com.example.phone_comparison_backend.util.SpecParser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+// Immutable, versioned view of the phone catalog. Built once per reload and shared by all readers.
+public class CatalogSnapshot {
+
+    public static final int UNKNOWN = -1;
 
-    // Node for Ternary Search Tree
-    private static class TSTNode {
-        char character;
-        boolean isEndOfWord;
-        TSTNode left, middle, right;
+    private static final CatalogSnapshot EMPTY = new CatalogSnapshot(0L, List.of());
 
-        public TSTNode(char character) {
-            this.character = character;
+    private final long version;
+    private final long builtAt;
+    private final List<Phone> phones;     // Sorted by id
+    private final long[] ids;             // ids[i] == phones.get(i).getId()
+    private final String[] lowerModels;   // Lowercased model per phone, computed once
+    private final String[] lowerCompanies; // Lowercased company per phone, computed once
+    private final long[] priceCents;      // Parsed spec columns as primitives, UNKNOWN when unparseable
+    private final int[] ramMb;
+    private final int[] romMb;
+
+    public CatalogSnapshot(long version, List<Phone> source) {
+        List<Phone> sorted = new ArrayList<>(source);
+        sorted.sort(Comparator.comparing(Phone::getId, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        this.version = version;
+        this.builtAt = System.currentTimeMillis();
+        this.phones = Collections.unmodifiableList(sorted);
+        this.ids = new long[sorted.size()];
+        this.lowerModels = new String[sorted.size()];
+        this.lowerCompanies = new String[sorted.size()];
+        this.priceCents = new long[sorted.size()];
+        this.ramMb = new int[sorted.size()];
+        this.romMb = new int[sorted.size()];
+
+        for (int i = 0; i < sorted.size(); i++) {
+            Phone phone = sorted.get(i);
+            ids[i] = phone.getId() == null ? Long.MAX_VALUE : phone.getId();
+            lowerModels[i] = phone.getModel() == null ? "" : phone.getModel().toLowerCase();
+            lowerCompanies[i] = phone.getCompany() == null ? "" : phone.getCompany().toLowerCase();
+            // Rows loaded before the typed columns existed are parsed here until they are backfilled
+            boolean parsed = Boolean.TRUE.equals(phone.getSpecsParsed());
+            Long cents = parsed ? phone.getPriceCents() : SpecParser.toCents(phone.getPrice());
+            Integer ram = parsed ? phone.getRamMb() : SpecParser.parseMegabytes(phone.getRam());
+            Integer rom = parsed ? phone.getRomMb() : SpecParser.parseMegabytes(phone.getRom());
+            priceCents[i] = cents == null ? UNKNOWN : cents;
+            ramMb[i] = ram == null ? UNKNOWN : ram;
+            romMb[i] = rom == null ? UNKNOWN : rom;
         }
     }
 
-    private TSTNode root;
+    public static CatalogSnapshot empty() {
+        return EMPTY;
+    }
+
+    public long getVersion() {
+        return version;
+    }
 
-    // Method to insert a word into the TST
-    public void insert(String word) {
-        if (word == null || word.trim().isEmpty()) {
-            return; // Ignore empty or null words
-        }
-        root = insert(root, word.toCharArray(), 0);
+    public long getBuiltAt() {
+        return builtAt;
     }
 
-    private TSTNode insert(TSTNode node, char[] word, int index) {
-        char currentChar = word[index];
-        if (node == null) {
-            node = new TSTNode(currentChar);
-        }
+    public int size() {
+        return phones.size();
+    }
 
-        if (currentChar < node.character) {
-            node.left = insert(node.left, word, index);
-        } else if (currentChar > node.character) {
-            node.right = insert(node.right, word, index);
-        } else {
-            if (index + 1 < word.length) {
-                node.middle = insert(node.middle, word, index + 1);
+    public List<Phone> getPhones() {
+        return phones;
+    }
+
+    public Phone getPhone(int ordinal) {
+        return phones.get(ordinal);
+    }
+
+    public long getId(int ordinal) {
+        return ids[ordinal];
+    }
+
+    public String getLowerModel(int ordinal) {
+        return lowerModels[ordinal];
+    }
+
+    public String getLowerCompany(int ordinal) {
+        return lowerCompanies[ordinal];
+    }
+
+    public long getPriceCents(int ordinal) {
+        return priceCents[ordinal];
+    }
+
+    public int getRamMb(int ordinal) {
+        return ramMb[ordinal];
+    }
+
+    public int getRomMb(int ordinal) {
+        return romMb[ordinal];
+    }
+
+    // Returns the ordinal of the phone with the given id, or -1 if it is not in this snapshot
+    public int ordinalOf(long id) {
+        int low = 0;
+        int high = ids.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (ids[mid] < id) {
+                low = mid + 1;
+            } else if (ids[mid] > id) {
+                high = mid - 1;
             } else {
-                node.isEndOfWord = true; // Mark the end of the word
+                return mid;
             }
         }
-        return node;
+        return -1;
     }
 
-    // Method to search for a word in the files
-    public Map<String, Map<Integer, String>> searchWord(String word) {
-        Map<String, Map<Integer, String>> results = new HashMap<>();
+    public Phone findById(long id) {
+        int ordinal = ordinalOf(id);
+        return ordinal < 0 ? null : phones.get(ordinal);
+    }
 
-        if (word == null || word.trim().isEmpty()) {
-            System.out.println("Empty search term provided.");
-            return results; // Return empty result if no word is provided
+    // Returns the ordinal of the first phone whose id is strictly greater than the given id
+    public int firstOrdinalAfter(long id) {
+        int low = 0;
+        int high = ids.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ids[mid] <= id) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
         }
+        return low;
+    }
+}
 
-        String directoryPath = "TextFiles";
 
-        File directory = new File(directoryPath);
-        File[] txtFiles = directory.listFiles((dir, name) -> name.toLowerCase().endsWith(".txt"));
 
-        if (txtFiles == null || txtFiles.length == 0) {
-            System.out.println("No text files found in directory.");
-            return results; // Return empty result if no files are found
-        }
+//SpellSuggestion.java:---------------------------------------------------------------------------
+package com.example.phone_comparison_backend.model;
 
-        System.out.println("Searching for word: " + word);
+public class SpellSuggestion implements Comparable<SpellSuggestion> {
 
-        for (File file : txtFiles) {
-            try {
-                String content = new String(Files.readAllBytes(Paths.get(file.getAbsolutePath())));
-                if (content.isEmpty()) {
-                    System.out.println("Skipping empty file: " + file.getAbsolutePath());
-                    continue; // Skip empty files
-                }
+    private final String word;
+    private final int distance;
 
-                // Build the TST from file content
-                buildTST(content);
+    public SpellSuggestion(String word, int distance) {
+        this.word = word;
+        this.distance = distance;
+    }
 
-                // Search for occurrences of the word in the file
-                Map<Integer, String> occurrences = findWordOccurrences(content, word);
+    public String getWord() {
+        return word;
+    }
 
-                if (!occurrences.isEmpty()) {
-                    System.out.println("Found occurrences in file: " + file.getAbsolutePath());
-                    results.put(file.getAbsolutePath(), occurrences);
-                }
-            } catch (IOException e) {
-                System.err.println("Error reading file " + file.getAbsolutePath() + ": " + e.getMessage());
-            }
-        }
+    public int getDistance() {
+        return distance;
+    }
 
-        if (results.isEmpty()) {
-            System.out.println("No occurrences found for word: " + word);
-        } else {
-            System.out.println("Found occurrences in " + results.size() + " files.");
-        }
+    @Override
+    public int compareTo(SpellSuggestion other) {
+        // Closest first, ties broken alphabetically so results are stable
+        int byDistance = Integer.compare(this.distance, other.distance);
+        return byDistance != 0 ? byDistance : this.word.compareTo(other.word);
+    }
+}
+
+
+
+//SortRequest.java:--------------------------------------------------------------------------------
+package com.example.phone_comparison_backend.model;
+
+public class SortRequest {
 
-        return results; // Return the map with the search results
+    private String sortBy;  // price or model
+    private boolean ascending;  // true for ascending, false for descending
+
+    // Getters and setters
+    public String getSortBy() {
+        return sortBy;
     }
 
-    // Method to build a TST from content
-    private void buildTST(String content) {
-        root = null; // Reset the TST for each file's content
-        String[] words = content.split("\\W+"); // Split by non-word characters
+    public void setSortBy(String sortBy) {
+        this.sortBy = sortBy;
+    }
 
-        for (String word : words) {
-            insert(word); // Insert each word into the TST
-        }
+    public boolean isAscending() {
+        return ascending;
     }
 
-    // Method to find occurrences of a word in the content using TST
-    private Map<Integer, String> findWordOccurrences(String content, String word) {
-        Map<Integer, String> occurrences = new HashMap<>();
+    public void setAscending(boolean ascending) {
+        this.ascending = ascending;
+    }
+}
 
-        int index = content.indexOf(word); // Start searching from the first occurrence
 
-        while (index != -1) {
-            occurrences.put(index, word); // Store the occurrence index
-            index = content.indexOf(word, index + 1); // Search for the next occurrence
-        }
+//Repository:
+
+//PhoneRepository:------------------------------------------------------------------------------
+package com.example.phone_comparison_backend.repository;
+
+import com.example.phone_comparison_backend.model.Phone;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface PhoneRepository extends JpaRepository<Phone, Long> {
+
+    // Existing methods
+    List<Phone> findByCompany(String company); // Add query method for company
+    List<Phone> findByModelContaining(String model); // Example search by model
+    List<Phone> findByModelContainingAndCompany(String model, String company); // Search by model and company
+    int countByModelContainingOrCompanyContaining(String model, String company);
+
+    @Query("SELECT p.model FROM Phone p WHERE LOWER(p.model) LIKE CONCAT(LOWER(:prefix), '%')")
+    List<String> findPhoneModelsByPrefix(@Param("prefix") String prefix);
+
+    // Row-by-row cursor over the whole table (MySQL only streams with fetch size Integer.MIN_VALUE).
+    // Must be consumed inside a transaction and closed afterwards.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Phone p ORDER BY p.id")
+    Stream<Phone> streamAllOrderById();
 
-        return occurrences;
-    }
 }
 
 
 
-//PhoneService.java:---------------------------------------------------------------------------------------------------
+//SearchTermRepository:---------------------------------------------------------------------------------------------------
+package com.example.phone_comparison_backend.repository;
+
+import com.example.phone_comparison_backend.model.SearchTerm;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface SearchTermRepository extends JpaRepository<SearchTerm, Long> {
+    Optional<SearchTerm> findByTerm(String term);
+
+    List<SearchTerm> findAllByOrderByFrequencyDesc();
+
+    List<SearchTerm> findAllByOrderByFrequencyDesc(Pageable pageable);
+
+    // Rows whose term, lowercased, is one of the given lowercase terms
+    @Query("SELECT s FROM SearchTerm s WHERE LOWER(s.term) IN :terms")
+    List<SearchTerm> findByLowercaseTermIn(@Param("terms") Collection<String> terms);
+}
+
+
+
+//Service:
+
+//CatalogExportService.java:-----------------------------------------------------------------------------------------------
 
 package com.example.phone_comparison_backend.service;
+
 import com.example.phone_comparison_backend.model.Phone;
-import com.example.phone_comparison_backend.model.PhoneComparison;
-import com.example.phone_comparison_backend.model.SearchTerm;
 import com.example.phone_comparison_backend.repository.PhoneRepository;
-import com.example.phone_comparison_backend.repository.SearchTermRepository;
-import com.example.phone_comparison_backend.util.KMPAlgorithm;
-import com.example.phone_comparison_backend.util.WordCompletion;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
-import com.opencsv.CSVReader;
-import java.io.InputStreamReader;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
 
 @Service
-public class PhoneService {
+public class CatalogExportService {
+
+    private static final int FLUSH_EVERY = 256; // Rows written between flushes to the client
 
     @Autowired
     private PhoneRepository phoneRepository;
 
     @Autowired
-    private SearchTermRepository searchTermRepository;
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Write every phone as one JSON object per line. Only one row is held in memory at a time.
+    @Transactional(readOnly = true)
+    public long exportPhones(OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<Phone> phones = phoneRepository.streamAllOrderById()) {
+            Iterator<Phone> iterator = phones.iterator();
+            while (iterator.hasNext()) {
+                Phone phone = iterator.next();
+                out.write(objectMapper.writeValueAsBytes(phone));
+                out.write('\n');
+                entityManager.detach(phone); // Keep the persistence context from growing with the table
+
+                if (++count % FLUSH_EVERY == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+        System.out.println("Exported " + count + " phones as NDJSON.");
+        return count;
+    }
+}
 
-    @Autowired
-    private SpellCheckService spellCheckService;
 
-    @Autowired
-    private WordCompletion wordCompletion;
+//CatalogSuffixIndexService.java:-----------------------------------------------------------------------------------------
 
-    @Autowired
-    private DocumentFileReaderService documentFileReaderService;
+package com.example.phone_comparison_backend.service;
 
-    public void loadPhonesFromCsv() throws Exception {
-        List<Phone> phoneList = new ArrayList<>();
-        try (CSVReader csvReader = new CSVReader(new InputStreamReader(
-                new ClassPathResource("phones.csv").getInputStream()))) {
-            String[] line;
-            csvReader.readNext(); // Skip header
-            while ((line = csvReader.readNext()) != null) {
-                String model = line[0];
-                String imageUrl = line[1];
-                Float price = parsePrice(line[2]);
-                String company = line[3];
-                String productLink = line.length > 4 ? line[4] : "";
+import com.example.phone_comparison_backend.model.CatalogSnapshot;
+import com.example.phone_comparison_backend.util.KMPAlgorithm;
+import com.example.phone_comparison_backend.util.SuffixArray;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
 
-                // New fields
-                String os = line.length > 5 ? line[5] : "";
-                String ram = line.length > 6 ? line[6] : "";
-                String rom = line.length > 7 ? line[7] : "";
-                String is5G = line.length > 8 ? line[8].trim().equalsIgnoreCase("Supported") ? "Yes" : "No" : "No";
-            String isDualSim = line.length > 9 ? line[9].trim().equalsIgnoreCase("Supported") ? "Yes" : "No" : "No";
-            String hasFastCharging = line.length > 11 ? line[11].trim().equalsIgnoreCase("Supported") ? "Yes" : "No" : "No";
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
-            // Bluetooth version and other fields
-            String bluetoothVersion = line.length > 10 ? line[10].trim().replace(",", ";") : "";
+// Substring occurrence counts over the catalog's lowercased models and companies. A suffix array over
+// "model\0company\0" for every phone answers a count with two binary searches, independent of the
+// catalog size. It is rebuilt on a background thread after each reload, so counts follow the previous
+// catalog for the moment the build takes; before the first build they fall back to a KMP scan.
+@Service
+public class CatalogSuffixIndexService {
 
-                Phone phone = new Phone(model, imageUrl, price, company, productLink);
-                phone.setOs(os);
-                phone.setRam(ram);
-                phone.setRom(rom);
-                phone.set5G(is5G);
-                phone.setDualSim(isDualSim);
-                phone.setBluetoothVersion(bluetoothVersion);
-                phone.setHasFastCharging(hasFastCharging);
+    private static final char SEPARATOR = '\0';  // Ends every string, so no match spans two of them
 
-                phoneList.add(phone);
-            }
-        }
-        phoneRepository.saveAll(phoneList);
-        initializeSpellCheck();
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    private volatile SuffixArray suffixArray;     // null until the first build completes
+    private volatile long indexedVersion;
+    private final AtomicLong requestedVersion = new AtomicLong();
+    private final ExecutorService buildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-suffix-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void registerCatalogListener() {
+        catalogSnapshotService.addReloadListener(this::scheduleRebuild);
     }
 
-    public List<Phone> findPhonesByIds(List<Long> phoneIds) {
-        return phoneRepository.findAllById(phoneIds);
+    @PreDestroy
+    public void shutdown() {
+        buildExecutor.shutdownNow();
     }
 
-    public PhoneComparison comparePhonesDetailed(Long id1, Long id2) {
+    public void scheduleRebuild(CatalogSnapshot snapshot) {
+        requestedVersion.set(snapshot.getVersion());
+        buildExecutor.execute(() -> {
+            // Superseded by a later reload while queued; that reload's own task builds the newer one
+            if (snapshot.getVersion() == requestedVersion.get()) {
+                rebuild(snapshot);
+            }
+        });
+    }
+
+    public void rebuild(CatalogSnapshot snapshot) {
+        long start = System.currentTimeMillis();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < snapshot.size(); i++) {
+            text.append(snapshot.getLowerModel(i)).append(SEPARATOR);
+            text.append(snapshot.getLowerCompany(i)).append(SEPARATOR);
+        }
+        suffixArray = new SuffixArray(text.toString());
+        indexedVersion = snapshot.getVersion();
+        System.out.println("Catalog suffix array v" + snapshot.getVersion() + " built over " + text.length()
+                + " chars in " + (System.currentTimeMillis() - start) + " ms.");
+    }
+
+    // Occurrences of the term (case-insensitive, overlapping ones included) across all models and companies
+    public int countOccurrences(String searchTerm) {
+        String term = searchTerm.toLowerCase();
+        if (term.isEmpty()) {
+            return 0;
+        }
+        SuffixArray current = suffixArray;
+        if (current == null || term.indexOf(SEPARATOR) >= 0) {
+            return scan(term);
+        }
+        return current.count(term);
+    }
+
+    public long getIndexedVersion() {
+        return indexedVersion;
+    }
+
+    private int scan(String term) {
+        CatalogSnapshot snapshot = catalogSnapshotService.getSnapshot();
+        int totalCount = 0;
+        for (int i = 0; i < snapshot.size(); i++) {
+            totalCount += KMPAlgorithm.countOccurrences(snapshot.getLowerModel(i), term);
+            totalCount += KMPAlgorithm.countOccurrences(snapshot.getLowerCompany(i), term);
+        }
+        return totalCount;
+    }
+}
+
+
+
+//CatalogSnapshotService.java:--------------------------------------------------------------------------------------------
+
+package com.example.phone_comparison_backend.service;
+
+import com.example.phone_comparison_backend.model.CatalogSnapshot;
+import com.example.phone_comparison_backend.model.Phone;
+import com.example.phone_comparison_backend.repository.PhoneRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+@Service
+public class CatalogSnapshotService {
+
+    @Autowired
+    private PhoneRepository phoneRepository;
+
+    @Value("${catalog.reload.min-interval-ms:30000}")
+    private long reloadMinIntervalMs;
+
+    // When the last externally requested reload started; 0 before the first one
+    private final AtomicLong lastRequestedReloadAt = new AtomicLong();
+
+    // Readers only ever do a volatile read of this reference, so they never block or touch JDBC
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>(CatalogSnapshot.empty());
+
+    // Derived structures (vocabulary, indexes) that have to be rebuilt whenever the catalog changes
+    private final List<Consumer<CatalogSnapshot>> reloadListeners = new CopyOnWriteArrayList<>();
+
+    public CatalogSnapshot getSnapshot() {
+        return current.get();
+    }
+
+    public long getVersion() {
+        return current.get().getVersion();
+    }
+
+    // Rebuild the snapshot from the database and atomically swap it in
+    public synchronized CatalogSnapshot reload() {
+        List<Phone> phones = phoneRepository.findAll();
+        CatalogSnapshot snapshot = new CatalogSnapshot(current.get().getVersion() + 1, phones);
+        current.set(snapshot);
+        System.out.println("Catalog snapshot v" + snapshot.getVersion() + " published with " + snapshot.size() + " phones.");
+
+        for (Consumer<CatalogSnapshot> listener : reloadListeners) {
+            try {
+                listener.accept(snapshot);
+            } catch (RuntimeException e) {
+                System.err.println("Error while applying catalog snapshot v" + snapshot.getVersion() + ": " + e.getMessage());
+            }
+        }
+        return snapshot;
+    }
+
+    // Reload on behalf of an outside caller (the reload endpoint): at most one per reloadMinIntervalMs,
+    // claimed with a CAS so concurrent callers never queue up full-table reads. Null when throttled.
+    public CatalogSnapshot requestReload() {
+        long now = System.currentTimeMillis();
+        long last = lastRequestedReloadAt.get();
+        if ((last != 0 && now - last < reloadMinIntervalMs) || !lastRequestedReloadAt.compareAndSet(last, now)) {
+            return null;
+        }
+        return reload();
+    }
+
+    // Seconds until requestReload will accept another call
+    public long getReloadRetryAfterSeconds() {
+        long wait = lastRequestedReloadAt.get() + reloadMinIntervalMs - System.currentTimeMillis();
+        return Math.max(1, (wait + 999) / 1000);
+    }
+
+    // Register a callback for every future reload; it is also applied to the current snapshot if one is loaded
+    public synchronized void addReloadListener(Consumer<CatalogSnapshot> listener) {
+        reloadListeners.add(listener);
+        CatalogSnapshot snapshot = current.get();
+        if (snapshot.getVersion() > 0) {
+            listener.accept(snapshot);
+        }
+    }
+}
+
+
+//DocumentFileReaderService:------------------------------------------------------------------------------------------------
+
+package com.example.phone_comparison_backend.service;
+
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+@Service
+public class DocumentFileReaderService {
+
+    public String readFileContent(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        System.out.println("File read successful");
+        return new String(Files.readAllBytes(path));  // Read all content of the file
+    }
+}
+
+
+//FrequencyCountService:---------------------------------------------------------------------------------------------------
+
+package com.example.phone_comparison_backend.service;
+
+import com.example.phone_comparison_backend.util.CountMinSketch;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+public class FrequencyCountService {
+
+    private static final int MAX_TERM_LENGTH = 100;   // Longer request bodies are truncated before counting
+    private static final int EVICTION_SAMPLE_SIZE = 8; // Tracked terms sampled when looking for a victim
+
+    // One striped counter per tracked term; increments of known terms never take a lock
+    private static final class Counter {
+        final LongAdder count = new LongAdder();
+
+        Counter(long initial) {
+            count.add(initial);
+        }
+    }
+
+    // In-memory map to store search term frequencies, bounded by maxTerms
+    private final ConcurrentHashMap<String, Counter> searchTermFrequencyMap = new ConcurrentHashMap<>();
+
+    // Recent popularity of every term seen, tracked or not; decides admission and eviction
+    private final CountMinSketch frequencySketch;
+    private final AtomicLong sketchAdditions = new AtomicLong();
+    private final long sketchResetInterval;
+
+    // Tracked terms by slot, so eviction can sample them at random (guarded by admissionLock)
+    private final String[] slots;
+    private int usedSlots;
+    private final Object admissionLock = new Object();
+
+    public FrequencyCountService(@Value("${search.frequency.max-terms:10000}") int maxTerms) {
+        this.slots = new String[maxTerms];
+        this.frequencySketch = new CountMinSketch(maxTerms * 4);
+        this.sketchResetInterval = maxTerms * 10L;
+    }
+
+    // Boyer-Moore algorithm for pattern matching
+    public int boyerMooreCount(String text, String pattern) {
+        int n = text.length();
+        int m = pattern.length();
+        int[] badCharacterShift = new int[256]; // ASCII size
+
+        // Initialize all occurrences as -1
+        for (int i = 0; i < 256; i++) {
+            badCharacterShift[i] = -1;
+        }
+
+        // Build the bad character shift table
+        for (int i = 0; i < m; i++) {
+            badCharacterShift[pattern.charAt(i)] = i;
+        }
+
+        int count = 0;
+        int shift = 0;
+        while (shift <= n - m) {
+            int j = m - 1;
+            while (j >= 0 && pattern.charAt(j) == text.charAt(shift + j)) {
+                j--;
+            }
+
+            if (j < 0) {
+                count++;
+                // Shift the pattern based on bad character heuristic
+                shift += (shift + m < n) ? m - badCharacterShift[text.charAt(shift + m)] : 1;
+            } else {
+                shift += Math.max(1, j - badCharacterShift[text.charAt(shift + j)]);
+            }
+        }
+        return count;
+    }
+
+    // Function to get the frequency of a search term
+    public int getSearchTermFrequency(String searchTerm) {
+        if (searchTerm == null) {
+            return 0;
+        }
+        String term = searchTerm.length() > MAX_TERM_LENGTH ? searchTerm.substring(0, MAX_TERM_LENGTH) : searchTerm;
+        recordInSketch(term);
+
+        Counter counter = searchTermFrequencyMap.get(term);
+        if (counter == null) {
+            counter = admit(term);
+            if (counter == null) {
+                // Not popular enough to displace a tracked term: answer from the sketch
+                return frequencySketch.estimate(term);
+            }
+        }
+        counter.count.increment();
+        long frequency = counter.count.sum();
+        if (searchTermFrequencyMap.get(term) != counter) {
+            // Evicted meanwhile, so this increment went to a dropped counter; the sketch already
+            // counted the search and stays the source of truth for untracked terms
+            return frequencySketch.estimate(term);
+        }
+        return (int) Math.min(Integer.MAX_VALUE, frequency);  // Return the updated frequency
+    }
+
+    // Number of terms currently holding an exact counter
+    public int getTrackedTermCount() {
+        return searchTermFrequencyMap.size();
+    }
+
+    private void recordInSketch(String term) {
+        frequencySketch.increment(term);
+        // Periodically halve the sketch so terms that used to be hot can be displaced
+        if (sketchAdditions.incrementAndGet() % sketchResetInterval == 0) {
+            frequencySketch.halve();
+        }
+    }
+
+    // Give a new term a counter. Once the map is full, the least popular of a few sampled terms is
+    // evicted, but only if the newcomer is more popular than it; otherwise null is returned. The
+    // counter starts from the sketch estimate the term was answered with so far, less the search
+    // the caller is about to count, so the reported frequency never drops on admission.
+    private Counter admit(String term) {
+        synchronized (admissionLock) {
+            Counter existing = searchTermFrequencyMap.get(term);
+            if (existing != null) {
+                return existing;
+            }
+
+            int slot;
+            if (usedSlots < slots.length) {
+                slot = usedSlots++;
+            } else {
+                if (slots.length == 0) {
+                    return null;
+                }
+                int victimSlot = -1;
+                int victimFrequency = Integer.MAX_VALUE;
+                for (int i = 0; i < EVICTION_SAMPLE_SIZE; i++) {
+                    int candidate = ThreadLocalRandom.current().nextInt(slots.length);
+                    int frequency = frequencySketch.estimate(slots[candidate]);
+                    if (frequency < victimFrequency) {
+                        victimFrequency = frequency;
+                        victimSlot = candidate;
+                    }
+                }
+                if (frequencySketch.estimate(term) <= victimFrequency) {
+                    return null;
+                }
+                searchTermFrequencyMap.remove(slots[victimSlot]);
+                slot = victimSlot;
+            }
+
+            slots[slot] = term;
+            Counter counter = new Counter(Math.max(0, frequencySketch.estimate(term) - 1));
+            searchTermFrequencyMap.put(term, counter);
+            return counter;
+        }
+    }
+
+    // Optional: method to reset the frequency map (could be useful in future scenarios)
+    public void resetSearchTermFrequencies() {
+        synchronized (admissionLock) {
+            searchTermFrequencyMap.clear();  // This will reset all the frequencies when needed
+            Arrays.fill(slots, null);
+            usedSlots = 0;
+            frequencySketch.clear();
+        }
+    }
+}
+
+//InvertedIndexService.java:-----------------------------------------------------------------------------------------------------
+package com.example.phone_comparison_backend.service;
+
+import com.example.phone_comparison_backend.model.RankedDocument;
+import com.example.phone_comparison_backend.model.TextHit;
+import com.example.phone_comparison_backend.model.TextSearchResult;
+import com.example.phone_comparison_backend.util.BooleanQuery;
+import com.example.phone_comparison_backend.util.IndexSegment;
+import com.example.phone_comparison_backend.util.MappedWordSearch;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.*;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+// Inverted index over the .txt files in the TextFiles directory, kept current by watching the directory.
+// The index is a list of immutable segments plus a tombstone set per segment: a changed file is indexed
+// into a new small segment and its old postings are tombstoned. Small segments are merged in the
+// background from their postings, without re-reading the files. Every published change gets a new
+// generation number. Segments and tombstones are saved in textfiles.index-directory and loaded at startup.
+@Service
+public class InvertedIndexService {
+
+    private static final int MANIFEST_MAGIC = 0x54584d46;  // "TXMF"
+    private static final int MAX_SEGMENTS = 8;             // More than this triggers a merge of the small ones
+    private static final double MAX_DELETED_RATIO = 0.3;   // More tombstones than this triggers a full merge
+    private static final long DEBOUNCE_MS = 500;           // Quiet period before applying file changes
+    private static final long MAX_BATCH_DELAY_MS = 5000;   // Apply even if files keep changing
+    private static final int SNIPPET_CONTEXT = 60;         // Chars of context either side of a hit
+    private static final int MAX_SNIPPET_LINE_BYTES = 64 * 1024;
+    private static final double BM25_K1 = 1.2;
+    private static final double BM25_B = 0.75;
+
+    @Value("${textfiles.directory:TextFiles}")
+    private String directoryPath;
+
+    @Value("${textfiles.index-directory:TextFilesIndex}")
+    private String indexDirectory;
+
+    @Value("${textfiles.watch:true}")
+    private boolean watchEnabled;
+
+    // One published version of the index; never modified after publishing
+    private static final class IndexState {
+        final long generation;
+        final List<IndexSegment> segments;
+        final List<String> segmentFiles;
+        final List<BitSet> deleted;
+        final long liveDocs;
+        final long liveTokens;  // Sum of live document lengths, for BM25's average document length
+        // Live document frequency per term, filled in as ranked queries ask for them. The state is
+        // immutable, so an entry stays valid for its lifetime; a term's postings are walked at most
+        // once per state instead of on every query.
+        final Map<String, Long> liveDocFreqs = new ConcurrentHashMap<>();
+
+        IndexState(long generation, List<IndexSegment> segments, List<String> segmentFiles, List<BitSet> deleted) {
+            this.generation = generation;
+            this.segments = segments;
+            this.segmentFiles = segmentFiles;
+            this.deleted = deleted;
+            long docs = 0;
+            long tokens = 0;
+            for (int seg = 0; seg < segments.size(); seg++) {
+                IndexSegment segment = segments.get(seg);
+                for (int doc = 0; doc < segment.docCount(); doc++) {
+                    if (!deleted.get(seg).get(doc)) {
+                        docs++;
+                        tokens += segment.docLength(doc);
+                    }
+                }
+            }
+            this.liveDocs = docs;
+            this.liveTokens = tokens;
+        }
+
+        // {segment, doc} of the live document with this file name, or null
+        int[] locate(String name) {
+            for (int seg = segments.size() - 1; seg >= 0; seg--) {
+                int doc = segments.get(seg).docId(name);
+                if (doc >= 0 && !deleted.get(seg).get(doc)) {
+                    return new int[]{seg, doc};
+                }
+            }
+            return null;
+        }
+
+        int docCount() {
+            int count = 0;
+            for (IndexSegment segment : segments) {
+                count += segment.docCount();
+            }
+            return count;
+        }
+
+        int deletedCount() {
+            int count = 0;
+            for (BitSet bits : deleted) {
+                count += bits.cardinality();
+            }
+            return count;
+        }
+    }
+
+    private volatile IndexState state = new IndexState(0, List.of(), List.of(), List.of());
+    private final Object updateLock = new Object();
+
+    private final AtomicBoolean mergeScheduled = new AtomicBoolean();
+    private final ExecutorService mergeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "textfiles-index-merge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile WatchService watchService;
+
+    // Per-file work (reading, tokenizing, scanning) runs here; bounded to the number of cores
+    private static final int WORKER_THREADS = Runtime.getRuntime().availableProcessors();
+    private final ExecutorService workerPool = Executors.newFixedThreadPool(WORKER_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "textfiles-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void loadIndex() {
+        IndexState loaded = readManifest();
+        if (loaded != null) {
+            state = loaded;
+            System.out.println("Loaded text index generation " + loaded.generation + ": " + loaded.segments.size()
+                    + " segments, " + (loaded.docCount() - loaded.deletedCount()) + " files.");
+        }
+        // Pick up whatever changed while the application was down
+        applyChanges(null);
+        deleteUnusedSegmentFiles();
+        startWatcher();
+    }
+
+    // Segment files left behind by an unreadable manifest or an older index format
+    private void deleteUnusedSegmentFiles() {
+        Path directory = Paths.get(indexDirectory).toAbsolutePath();
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        synchronized (updateLock) {
+            List<String> inUse = state.segmentFiles;
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "segment-*.idx")) {
+                for (Path path : stream) {
+                    if (!inUse.contains(path.getFileName().toString())) {
+                        Files.deleteIfExists(path);
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Could not clean up text index directory: " + e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        WatchService watcher = watchService;
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                System.err.println("Could not close text file watcher: " + e.getMessage());
+            }
+        }
+        mergeExecutor.shutdownNow();
+        workerPool.shutdownNow();
+    }
+
+    // Reads every .txt file into a single new segment, replacing all existing ones
+    public void rebuildIndex() {
+        synchronized (updateLock) {
+            long start = System.currentTimeMillis();
+            IndexSegment.Builder builder = new IndexSegment.Builder();
+            indexFiles(builder, listTextFileNames());
+            IndexSegment built = builder.build();
+            IndexState current = state;
+            publish(new IndexState(current.generation + 1, List.of(built),
+                    List.of(segmentFileName(current.generation + 1)), List.of(new BitSet())), built);
+            System.out.println("Built text index: " + built.docCount() + " files, " + built.termCount() + " terms, "
+                    + built.postingsBytes() + " postings bytes in " + (System.currentTimeMillis() - start) + " ms.");
+        }
+    }
+
+    public int getIndexedFileCount() {
+        IndexState current = state;
+        return current.docCount() - current.deletedCount();
+    }
+
+    public long getIndexGeneration() {
+        return state.generation;
+    }
+
+    public Map<String, Object> getIndexStatus() {
+        IndexState current = state;
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("generation", current.generation);
+        status.put("segments", current.segments.size());
+        status.put("indexedFiles", current.docCount() - current.deletedCount());
+        status.put("deletedFiles", current.deletedCount());
+        status.put("watching", watchService != null);
+        return status;
+    }
+
+    // Method to search for a word in the files: file path -> (char offset -> word)
+    public Map<String, Map<Integer, String>> searchWord(String word) {
+        return search(word).getResults();
+    }
+
+    // Same as searchWord, tagged with the index generation that answered it
+    public TextSearchResult<Map<String, Map<Integer, String>>> search(String word) {
+        return search(word, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    // Stops after maxFiles files or maxHits occurrences, whichever comes first.
+    // A query of several words matches them as an exact phrase; offsets are those of the first indexed word.
+    public TextSearchResult<Map<String, Map<Integer, String>>> search(String word, int maxFiles, int maxHits) {
+        Map<String, Map<Integer, String>> results = new LinkedHashMap<>();
+        IndexState current = state;
+
+        List<String> terms = queryPhrase(word);
+        if (terms.stream().noneMatch(Objects::nonNull)) {
+            System.out.println("Empty search term provided.");
+            return new TextSearchResult<>(results, current.generation); // Return empty result if no word is provided
+        }
+
+        System.out.println("Searching for word: " + word);
+
+        int[] hits = new int[1];
+        forEachPhraseMatch(current, terms, (segment, doc, matches) -> {
+            if (results.size() >= maxFiles || hits[0] >= maxHits) {
+                return false;
+            }
+            Map<Integer, String> occurrences = new LinkedHashMap<>();
+            for (int i = 0; i < matches.size() && hits[0] < maxHits; i++, hits[0]++) {
+                occurrences.put(matches.get(i)[0], word);
+            }
+            results.put(resolve(segment.name(doc)), occurrences);
+            return true;
+        });
+
+        if (results.isEmpty()) {
+            System.out.println("No occurrences found for word: " + word);
+        } else {
+            System.out.println("Found occurrences in " + results.size() + " files.");
+        }
+
+        return new TextSearchResult<>(results, current.generation); // Return the map with the search results
+    }
+
+    // Word or exact-phrase hits with 1-based line numbers and a short snippet of the surrounding line.
+    // Snippets are read from the file's line via the index's line table; they are omitted for files
+    // that changed since they were indexed.
+    public TextSearchResult<List<TextHit>> searchHits(String query, int maxHits) {
+        List<TextHit> hits = new ArrayList<>();
+        IndexState current = state;
+        List<String> terms = queryPhrase(query);
+        if (terms.stream().noneMatch(Objects::nonNull) || maxHits <= 0) {
+            return new TextSearchResult<>(hits, current.generation);
+        }
+
+        forEachPhraseMatch(current, terms, (segment, doc, matches) -> {
+            String path = resolve(segment.name(doc));
+            IndexSegment.LineTable lines = segment.lines(doc);
+            File file = new File(path);
+            boolean fresh = file.length() == segment.size(doc) && file.lastModified() == segment.lastModified(doc);
+            try (FileChannel channel = fresh ? FileChannel.open(file.toPath(), StandardOpenOption.READ) : null) {
+                for (int[] match : matches) {
+                    int line = lines.lineOf(match[0]);
+                    String snippet = channel != null ? readSnippet(channel, lines, line, match[0], match[1]) : null;
+                    hits.add(new TextHit(path, line, match[0], snippet));
+                    if (hits.size() >= maxHits) {
+                        return false;
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Could not read snippets from " + path + ": " + e.getMessage());
+                for (int[] match : matches) {
+                    hits.add(new TextHit(path, lines.lineOf(match[0]), match[0], null));
+                    if (hits.size() >= maxHits) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        });
+        return new TextSearchResult<>(hits, current.generation);
+    }
+
+    // Top k documents for the query words by BM25, best first. Document frequencies and the average
+    // document length are taken over live documents only, so idf stays positive after edits.
+    public TextSearchResult<List<RankedDocument>> searchRanked(String query, int k) {
+        IndexState current = state;
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(queryTerms(query)));
+        if (terms.isEmpty() || k <= 0 || current.liveDocs == 0) {
+            return new TextSearchResult<>(new ArrayList<>(), current.generation);
+        }
+
+        double averageLength = Math.max(1.0, (double) current.liveTokens / current.liveDocs);
+        double[] idf = new double[terms.size()];
+        for (int i = 0; i < terms.size(); i++) {
+            long docFreq = Math.min(current.liveDocFreqs.computeIfAbsent(terms.get(i), term -> liveDocFreq(current, term)),
+                    current.liveDocs);
+            idf[i] = Math.max(0.0, Math.log(1 + (current.liveDocs - docFreq + 0.5) / (docFreq + 0.5)));
+        }
+
+        // Min-heap of the best k so far; its smallest score is the bar a document has to clear
+        PriorityQueue<ScoredDoc> topK = new PriorityQueue<>(Comparator.comparingDouble(scored -> scored.score));
+        for (int seg = 0; seg < current.segments.size(); seg++) {
+            scoreSegment(current.segments.get(seg), current.deleted.get(seg), terms, idf, averageLength, k, topK);
+        }
+
+        List<RankedDocument> ranked = new ArrayList<>(topK.size());
+        while (!topK.isEmpty()) {
+            ScoredDoc scored = topK.poll();
+            ranked.add(new RankedDocument(resolve(scored.segment.name(scored.doc)), scored.score));
+        }
+        Collections.reverse(ranked);
+        return new TextSearchResult<>(ranked, current.generation);
+    }
+
+    // Files matching a boolean query such as "5g AND samsung NOT refurbished" (see BooleanQuery for the
+    // syntax), in index order, at most maxFiles of them. Throws IllegalArgumentException for a bad query.
+    public TextSearchResult<List<String>> searchBoolean(String query, int maxFiles) {
+        BooleanQuery parsed = BooleanQuery.parse(query);
+        IndexState current = state;
+        List<String> files = new ArrayList<>();
+        for (int seg = 0; seg < current.segments.size() && files.size() < maxFiles; seg++) {
+            IndexSegment segment = current.segments.get(seg);
+            BitSet deleted = current.deleted.get(seg);
+            BooleanQuery.DocIterator matches = parsed.iterator(segment);
+            for (int doc = matches.nextDoc(); doc != IndexSegment.NO_MORE_DOCS && files.size() < maxFiles; doc = matches.nextDoc()) {
+                if (!deleted.get(doc)) {
+                    files.add(resolve(segment.name(doc)));
+                }
+            }
+        }
+        return new TextSearchResult<>(files, current.generation);
+    }
+
+    // Documents containing the term that are not tombstoned; segments with deletions are walked.
+    // Cached per state in IndexState.liveDocFreqs.
+    private static long liveDocFreq(IndexState current, String term) {
+        long docFreq = 0;
+        for (int seg = 0; seg < current.segments.size(); seg++) {
+            IndexSegment segment = current.segments.get(seg);
+            int ordinal = segment.termOrdinal(term);
+            if (ordinal < 0) {
+                continue;
+            }
+            BitSet deleted = current.deleted.get(seg);
+            if (deleted.isEmpty()) {
+                docFreq += segment.docFreq(ordinal);
+                continue;
+            }
+            IndexSegment.Postings postings = segment.postings(ordinal);
+            for (int doc = postings.nextDoc(); doc != IndexSegment.NO_MORE_DOCS; doc = postings.nextDoc()) {
+                if (!deleted.get(doc)) {
+                    docFreq++;
+                }
+            }
+        }
+        return docFreq;
+    }
+
+    private static final class ScoredDoc {
+        final IndexSegment segment;
+        final int doc;
+        final double score;
+
+        ScoredDoc(IndexSegment segment, int doc, double score) {
+            this.segment = segment;
+            this.doc = doc;
+            this.score = score;
+        }
+    }
+
+    private static final class TermScorer {
+        final IndexSegment.Postings postings;
+        final double idf;
+        final double maxScore;  // No document in the segment can get more than this from the term
+
+        TermScorer(IndexSegment.Postings postings, double idf, double maxScore) {
+            this.postings = postings;
+            this.idf = idf;
+            this.maxScore = maxScore;
+        }
+    }
+
+    private static double bm25(double idf, int freq, int docLength, double averageLength) {
+        return idf * freq * (BM25_K1 + 1) / (freq + BM25_K1 * (1 - BM25_B + BM25_B * docLength / averageLength));
+    }
+
+    // MaxScore dynamic pruning. Terms are ordered by their maximum possible score; the cheapest terms
+    // whose maxima together cannot beat the current k-th best score are "non-essential": they never
+    // produce candidates and are only probed (advance) for documents that could still make the cut.
+    // Common words therefore stop driving the loop once a few good documents are in the heap.
+    private static void scoreSegment(IndexSegment segment, BitSet deleted, List<String> terms, double[] idf,
+                                     double averageLength, int k, PriorityQueue<ScoredDoc> topK) {
+        List<TermScorer> scorerList = new ArrayList<>();
+        for (int i = 0; i < terms.size(); i++) {
+            int ordinal = segment.termOrdinal(terms.get(i));
+            if (ordinal >= 0) {
+                double maxScore = bm25(idf[i], segment.maxFreq(ordinal), segment.minDocLength(), averageLength);
+                IndexSegment.Postings postings = segment.postings(ordinal);
+                postings.nextDoc();
+                scorerList.add(new TermScorer(postings, idf[i], maxScore));
+            }
+        }
+        if (scorerList.isEmpty()) {
+            return;
+        }
+        scorerList.sort(Comparator.comparingDouble(scorer -> scorer.maxScore));
+        TermScorer[] scorers = scorerList.toArray(new TermScorer[0]);
+        int n = scorers.length;
+        double[] maxScoreUpTo = new double[n];  // Sum of maxScore over scorers[0..i]
+        for (int i = 0; i < n; i++) {
+            maxScoreUpTo[i] = scorers[i].maxScore + (i > 0 ? maxScoreUpTo[i - 1] : 0);
+        }
+
+        double threshold = topK.size() >= k ? topK.peek().score : 0;
+        int firstEssential = 0;
+        while (true) {
+            while (firstEssential < n && maxScoreUpTo[firstEssential] <= threshold) {
+                firstEssential++;
+            }
+            if (firstEssential == n) {
+                return;  // Even a document containing every remaining term cannot make the top k
+            }
+            int doc = IndexSegment.NO_MORE_DOCS;
+            for (int i = firstEssential; i < n; i++) {
+                doc = Math.min(doc, scorers[i].postings.docId());
+            }
+            if (doc == IndexSegment.NO_MORE_DOCS) {
+                return;
+            }
+
+            boolean live = !deleted.get(doc);
+            int docLength = segment.docLength(doc);
+            double score = 0;
+            for (int i = firstEssential; i < n; i++) {
+                IndexSegment.Postings postings = scorers[i].postings;
+                if (postings.docId() == doc) {
+                    if (live) {
+                        score += bm25(scorers[i].idf, postings.freq(), docLength, averageLength);
+                    }
+                    postings.nextDoc();
+                }
+            }
+            if (!live) {
+                continue;
+            }
+            for (int i = firstEssential - 1; i >= 0; i--) {
+                if (score + maxScoreUpTo[i] <= threshold) {
+                    break;  // The remaining terms cannot lift this document into the top k
+                }
+                IndexSegment.Postings postings = scorers[i].postings;
+                if (postings.advance(doc) == doc) {
+                    score += bm25(scorers[i].idf, postings.freq(), docLength, averageLength);
+                }
+            }
+            if (topK.size() < k || score > threshold) {
+                topK.add(new ScoredDoc(segment, doc, score));
+                if (topK.size() > k) {
+                    topK.poll();
+                }
+                if (topK.size() >= k) {
+                    threshold = topK.peek().score;
+                }
+            }
+        }
+    }
+
+    private static List<String> queryTerms(String query) {
+        List<String> terms = new ArrayList<>();
+        if (query != null) {
+            IndexSegment.tokenize(query, (term, offset, position) -> terms.add(term));
+        }
+        return terms;
+    }
+
+    // Query words by position, with null for tokens too long to be indexed. Documents keep a
+    // position for those tokens too, so the phrase keeps its gap there instead of getting shorter.
+    private static List<String> queryPhrase(String query) {
+        List<String> phrase = new ArrayList<>();
+        if (query != null) {
+            int length = IndexSegment.tokenize(query, (term, offset, position) -> {
+                while (phrase.size() < position) {
+                    phrase.add(null);
+                }
+                phrase.add(term);
+            });
+            while (phrase.size() < length) {
+                phrase.add(null);
+            }
+        }
+        return phrase;
+    }
+
+    private interface PhraseMatchConsumer {
+        // matches holds {start offset, end offset} per occurrence; return false to stop
+        boolean accept(IndexSegment segment, int doc, List<int[]> matches);
+    }
+
+    // Finds live documents containing the phrase's words at consecutive positions; a null word (an
+    // over-long token) matches whatever token is at its position. Documents are intersected by
+    // leapfrogging, led by the rarest term; positions are only decoded for documents containing all terms.
+    private void forEachPhraseMatch(IndexState current, List<String> phrase, PhraseMatchConsumer consumer) {
+        List<String> terms = new ArrayList<>();
+        List<Integer> offsets = new ArrayList<>();
+        for (int i = 0; i < phrase.size(); i++) {
+            if (phrase.get(i) != null) {
+                terms.add(phrase.get(i));
+                offsets.add(i);
+            }
+        }
+        int n = terms.size();
+        int[] relative = new int[n];  // Position of each term relative to the first one
+        for (int i = 0; i < n; i++) {
+            relative[i] = offsets.get(i) - offsets.get(0);
+        }
+        int before = offsets.get(0);                         // Gap ahead of the first term
+        int after = phrase.size() - 1 - offsets.get(n - 1);  // Gap after the last term
+        for (int seg = 0; seg < current.segments.size(); seg++) {
+            IndexSegment segment = current.segments.get(seg);
+            BitSet deleted = current.deleted.get(seg);
+
+            IndexSegment.Postings[] postings = new IndexSegment.Postings[n];
+            Integer[] order = new Integer[n];
+            int[] docFreqs = new int[n];
+            boolean missing = false;
+            for (int i = 0; i < n && !missing; i++) {
+                int ordinal = segment.termOrdinal(terms.get(i));
+                missing = ordinal < 0;
+                if (!missing) {
+                    postings[i] = segment.postings(ordinal);
+                    docFreqs[i] = segment.docFreq(ordinal);
+                    order[i] = i;
+                }
+            }
+            if (missing) {
+                continue;
+            }
+            Arrays.sort(order, Comparator.comparingInt(i -> docFreqs[i]));
+
+            IndexSegment.Postings lead = postings[order[0]];
+            int doc = lead.nextDoc();
+            while (doc != IndexSegment.NO_MORE_DOCS) {
+                int next = doc;
+                for (int j = 1; j < n && next == doc; j++) {
+                    next = postings[order[j]].advance(doc);
+                }
+                if (next != doc) {
+                    doc = lead.advance(next);
+                    continue;
+                }
+                if (!deleted.get(doc)) {
+                    List<int[]> matches = phraseMatches(postings, relative, terms.get(n - 1).length(),
+                            before, segment.docLength(doc) - after);
+                    if (!matches.isEmpty() && !consumer.accept(segment, doc, matches)) {
+                        return;
+                    }
+                }
+                doc = lead.nextDoc();
+            }
+        }
+    }
+
+    // Occurrences of terms[0] at position p with terms[i] at p + relative[i] for every i, where
+    // p >= minStart and the last term sits before lastLimit. Offsets span the indexed terms only.
+    private static List<int[]> phraseMatches(IndexSegment.Postings[] postings, int[] relative, int lastTermLength,
+                                             int minStart, int lastLimit) {
+        int n = postings.length;
+        List<int[]> matches = new ArrayList<>();
+        int[] cursor = new int[n];
+        IndexSegment.Postings first = postings[0];
+        for (int k = 0; k < first.freq(); k++) {
+            int start = first.position(k);
+            if (start < minStart) {
+                continue;
+            }
+            if (start + relative[n - 1] >= lastLimit) {
+                break;
+            }
+            boolean match = true;
+            for (int i = 1; i < n && match; i++) {
+                IndexSegment.Postings other = postings[i];
+                while (cursor[i] < other.freq() && other.position(cursor[i]) < start + relative[i]) {
+                    cursor[i]++;
+                }
+                match = cursor[i] < other.freq() && other.position(cursor[i]) == start + relative[i];
+            }
+            if (match) {
+                int end = n == 1 ? first.offset(k) : postings[n - 1].offset(cursor[n - 1]);
+                matches.add(new int[]{first.offset(k), end + lastTermLength});
+            }
+        }
+        return matches;
+    }
+
+    // Up to SNIPPET_CONTEXT chars either side of the match, from the match's line
+    private static String readSnippet(FileChannel channel, IndexSegment.LineTable lines, int line,
+                                      int start, int end) throws IOException {
+        long from = lines.byteStart(line);
+        long to = lines.byteEnd(line) >= 0 ? lines.byteEnd(line) : channel.size();
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(Math.max(0, to - from), MAX_SNIPPET_LINE_BYTES));
+        int read;
+        do {
+            read = channel.read(buffer, from + buffer.position());
+        } while (read > 0 && buffer.hasRemaining());
+        String text = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+        int column = start - lines.charStart(line);
+        if (column > text.length()) {
+            return null;  // Match lies beyond the part of a very long line that was read
+        }
+        int columnEnd = Math.min(text.length(), end - lines.charStart(line));
+        int left = Math.max(0, column - SNIPPET_CONTEXT);
+        int right = Math.min(text.length(), columnEnd + SNIPPET_CONTEXT);
+        String snippet = text.substring(left, right).replace('\r', ' ').replace('\n', ' ').trim();
+        return (left > 0 ? "..." : "") + snippet + (right < text.length() && !text.substring(right).isBlank() ? "..." : "");
+    }
+
+    // Searches the files themselves instead of the index, one file per worker thread, for text the index
+    // has not caught up with yet. Whole-word, case-insensitive; offsets are byte offsets. Outstanding
+    // files are cancelled as soon as maxFiles files or maxHits occurrences have been collected. maxHits
+    // is one budget shared by all workers, so at most that many offsets are ever held in memory.
+    public TextSearchResult<Map<String, Map<Long, String>>> scan(String word, int maxFiles, int maxHits) {
+        Map<String, Map<Long, String>> results = new LinkedHashMap<>();
+        long generation = state.generation;
+        if (word == null || word.trim().isEmpty() || maxFiles <= 0 || maxHits <= 0) {
+            return new TextSearchResult<>(results, generation);
+        }
+        String trimmed = word.trim();
+        int[] hits = new int[1];
+        AtomicInteger remaining = new AtomicInteger(maxHits);
+        forEachFileInParallel(listTextFileNames(), name -> {
+            // Byte offsets stay long: the mapped scan is meant for files well past 2 GiB
+            List<Long> offsets = new ArrayList<>();
+            if (remaining.get() <= 0) {
+                return offsets;
+            }
+            try {
+                // Each match takes one hit from the shared budget; the scan stops once it is spent
+                MappedWordSearch.forEachMatch(Paths.get(directoryPath, name), trimmed, maxHits, offset -> {
+                    if (remaining.getAndDecrement() <= 0) {
+                        return false;
+                    }
+                    offsets.add(offset);
+                    return true;
+                });
+            } catch (IOException e) {
+                System.err.println("Error scanning file " + name + ": " + e.getMessage());
+            }
+            return offsets;
+        }, (name, offsets) -> {
+            if (offsets.isEmpty()) {
+                return true;
+            }
+            Map<Long, String> occurrences = new LinkedHashMap<>();
+            for (int i = 0; i < offsets.size() && hits[0] < maxHits; i++, hits[0]++) {
+                occurrences.put(offsets.get(i), word);
+            }
+            results.put(resolve(name), occurrences);
+            return results.size() < maxFiles && hits[0] < maxHits;
+        });
+        System.out.println("Scanned for word: " + word + ", found occurrences in " + results.size() + " files.");
+        return new TextSearchResult<>(results, generation);
+    }
+
+    // Brings the index in line with the given files (null = the whole directory): new and modified files
+    // go into one new segment, and the old postings of modified or deleted files are tombstoned.
+    public void applyChanges(Collection<String> names) {
+        synchronized (updateLock) {
+            IndexState current = state;
+            Set<String> candidates = new TreeSet<>();
+            if (names != null) {
+                candidates.addAll(names);
+            } else {
+                candidates.addAll(listTextFileNames());
+                for (IndexSegment segment : current.segments) {
+                    for (int doc = 0; doc < segment.docCount(); doc++) {
+                        candidates.add(segment.name(doc));
+                    }
+                }
+            }
+
+            List<BitSet> deleted = new ArrayList<>(current.deleted);
+            Set<Integer> copied = new HashSet<>();
+            List<String> toIndex = new ArrayList<>();
+            int removed = 0;
+            for (String name : candidates) {
+                File file = new File(directoryPath, name);
+                boolean exists = name.toLowerCase().endsWith(".txt") && file.isFile();
+                int[] location = current.locate(name);
+                if (location != null) {
+                    IndexSegment segment = current.segments.get(location[0]);
+                    int doc = location[1];
+                    if (exists && segment.size(doc) == file.length() && segment.lastModified(doc) == file.lastModified()) {
+                        continue;  // Unchanged
+                    }
+                    // Tombstone the old version; bitsets are copied before the first change
+                    if (copied.add(location[0])) {
+                        deleted.set(location[0], (BitSet) deleted.get(location[0]).clone());
+                    }
+                    deleted.get(location[0]).set(doc);
+                    removed++;
+                }
+                if (exists) {
+                    toIndex.add(name);
+                }
+            }
+            IndexSegment.Builder builder = new IndexSegment.Builder();
+            int indexed = indexFiles(builder, toIndex);
+            if (indexed == 0 && removed == 0) {
+                return;
+            }
+
+            long generation = current.generation + 1;
+            List<IndexSegment> segments = new ArrayList<>(current.segments);
+            List<String> segmentFiles = new ArrayList<>(current.segmentFiles);
+            IndexSegment added = null;
+            if (indexed > 0) {
+                added = builder.build();
+                segments.add(added);
+                segmentFiles.add(segmentFileName(generation));
+                deleted.add(new BitSet());
+            }
+            publish(new IndexState(generation, segments, segmentFiles, deleted), added);
+            System.out.println("Text index generation " + generation + ": indexed " + indexed + " files, tombstoned " + removed + ".");
+            scheduleMergeIfNeeded();
+        }
+    }
+
+    private void scheduleMergeIfNeeded() {
+        IndexState current = state;
+        boolean tooManySegments = current.segments.size() > MAX_SEGMENTS;
+        boolean tooManyDeleted = current.deletedCount() > MAX_DELETED_RATIO * Math.max(1, current.docCount());
+        if ((tooManySegments || tooManyDeleted) && mergeScheduled.compareAndSet(false, true)) {
+            try {
+                mergeExecutor.execute(this::mergeSegments);
+            } catch (RejectedExecutionException e) {
+                mergeScheduled.set(false);  // Shutting down; segments are merged after the next start
+            }
+        }
+    }
+
+    // Merges every segment after the first (or all of them when tombstones pile up) into one
+    private void mergeSegments() {
+        mergeScheduled.set(false);
+        IndexState start = state;
+        boolean full = start.deletedCount() > MAX_DELETED_RATIO * Math.max(1, start.docCount());
+        int from = full ? 0 : 1;
+        int to = start.segments.size();
+        if (to - from < 2 && !full) {
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+        IndexSegment.Builder builder = new IndexSegment.Builder();
+        List<int[]> docMaps = new ArrayList<>();
+        for (int seg = from; seg < to; seg++) {
+            docMaps.add(builder.addSegment(start.segments.get(seg), start.deleted.get(seg)));
+        }
+        IndexSegment merged = builder.build();
+
+        synchronized (updateLock) {
+            IndexState current = state;
+            // A rebuild or another merge replaced these segments meanwhile: drop this result
+            if (current.segments.size() < to) {
+                return;
+            }
+            for (int seg = from; seg < to; seg++) {
+                if (current.segments.get(seg) != start.segments.get(seg)) {
+                    return;
+                }
+            }
+            // Carry over tombstones set while the merge was running
+            BitSet mergedDeleted = new BitSet();
+            for (int seg = from; seg < to; seg++) {
+                BitSet added = (BitSet) current.deleted.get(seg).clone();
+                added.andNot(start.deleted.get(seg));
+                int[] docMap = docMaps.get(seg - from);
+                for (int doc = added.nextSetBit(0); doc >= 0; doc = added.nextSetBit(doc + 1)) {
+                    if (docMap[doc] >= 0) {
+                        mergedDeleted.set(docMap[doc]);
+                    }
+                }
+            }
+
+            long generation = current.generation + 1;
+            List<IndexSegment> segments = new ArrayList<>(current.segments.subList(0, from));
+            List<String> segmentFiles = new ArrayList<>(current.segmentFiles.subList(0, from));
+            List<BitSet> deleted = new ArrayList<>(current.deleted.subList(0, from));
+            segments.add(merged);
+            segmentFiles.add(segmentFileName(generation));
+            deleted.add(mergedDeleted);
+            segments.addAll(current.segments.subList(to, current.segments.size()));
+            segmentFiles.addAll(current.segmentFiles.subList(to, current.segmentFiles.size()));
+            deleted.addAll(current.deleted.subList(to, current.deleted.size()));
+            publish(new IndexState(generation, segments, segmentFiles, deleted), merged);
+            System.out.println("Merged " + (to - from) + " text index segments into generation " + generation
+                    + " in " + (System.currentTimeMillis() - started) + " ms.");
+        }
+    }
+
+    // Reads and tokenizes the files on the worker pool; the builder itself is only touched on this thread
+    private int indexFiles(IndexSegment.Builder builder, List<String> names) {
+        int[] indexed = new int[1];
+        forEachFileInParallel(names, this::readFile, (name, file) -> {
+            builder.addDocument(name, file.size, file.modified, file.analyzed);
+            indexed[0]++;
+            return true;
+        });
+        return indexed[0];
+    }
+
+    private static final class FileContent {
+        final long size;
+        final long modified;
+        final IndexSegment.AnalyzedDocument analyzed;
+
+        FileContent(long size, long modified, IndexSegment.AnalyzedDocument analyzed) {
+            this.size = size;
+            this.modified = modified;
+            this.analyzed = analyzed;
+        }
+    }
+
+    private FileContent readFile(String name) {
+        File file = new File(directoryPath, name);
+        try {
+            // Size and mtime are taken before reading, so a write racing with us is picked up next time
+            long size = file.length();
+            long modified = file.lastModified();
+            return new FileContent(size, modified, IndexSegment.analyze(Files.readAllBytes(file.toPath())));
+        } catch (IOException e) {
+            System.err.println("Error reading file " + file.getAbsolutePath() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Runs task for each file on the worker pool, keeping at most 2 x workers tasks in flight, and hands
+    // each non-null result to consumer on the calling thread in completion order. Once consumer returns
+    // false nothing more is submitted and the tasks still in flight are cancelled.
+    private <T> void forEachFileInParallel(List<String> names, Function<String, T> task, BiPredicate<String, T> consumer) {
+        CompletionService<Map.Entry<String, T>> completion = new ExecutorCompletionService<>(workerPool);
+        Set<Future<Map.Entry<String, T>>> inFlight = new HashSet<>();
+        int window = 2 * WORKER_THREADS;
+        int next = 0;
+        boolean stop = false;
+        try {
+            while (!stop && (next < names.size() || !inFlight.isEmpty())) {
+                while (inFlight.size() < window && next < names.size()) {
+                    String name = names.get(next++);
+                    inFlight.add(completion.submit(() -> new AbstractMap.SimpleImmutableEntry<>(name, task.apply(name))));
+                }
+                Future<Map.Entry<String, T>> done = completion.take();
+                inFlight.remove(done);
+                try {
+                    Map.Entry<String, T> result = done.get();
+                    if (result.getValue() != null && !consumer.test(result.getKey(), result.getValue())) {
+                        stop = true;
+                    }
+                } catch (ExecutionException e) {
+                    System.err.println("Text file task failed: " + e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (Future<Map.Entry<String, T>> future : inFlight) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    // Swaps in the new state, then saves the new segment (if any) and the manifest (caller holds updateLock)
+    private void publish(IndexState next, IndexSegment newSegment) {
+        IndexState previous = state;
+        state = next;
+        Path directory = Paths.get(indexDirectory).toAbsolutePath();
+        try {
+            Files.createDirectories(directory);
+            if (newSegment != null) {
+                newSegment.writeTo(directory.resolve(next.segmentFiles.get(next.segments.indexOf(newSegment))));
+            }
+            writeManifest(directory, next);
+            for (String file : previous.segmentFiles) {
+                if (!next.segmentFiles.contains(file)) {
+                    Files.deleteIfExists(directory.resolve(file));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not save text index generation " + next.generation + ": " + e.getMessage());
+        }
+    }
+
+    // Manifest: generation, then per segment its file name and tombstones.
+    // Written to a temp file first so a crash never leaves a half-written manifest behind.
+    private void writeManifest(Path directory, IndexState next) throws IOException {
+        Path temp = directory.resolve("manifest.tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MANIFEST_MAGIC);
+            out.writeLong(next.generation);
+            out.writeInt(next.segments.size());
+            for (int seg = 0; seg < next.segments.size(); seg++) {
+                out.writeUTF(next.segmentFiles.get(seg));
+                long[] words = next.deleted.get(seg).toLongArray();
+                out.writeInt(words.length);
+                for (long word : words) {
+                    out.writeLong(word);
+                }
+            }
+        }
+        Files.move(temp, directory.resolve("manifest"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private IndexState readManifest() {
+        Path directory = Paths.get(indexDirectory).toAbsolutePath();
+        Path manifest = directory.resolve("manifest");
+        if (!Files.exists(manifest)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(manifest)))) {
+            if (in.readInt() != MANIFEST_MAGIC) {
+                throw new IOException("Unsupported manifest format");
+            }
+            long generation = in.readLong();
+            int count = in.readInt();
+            List<IndexSegment> segments = new ArrayList<>(count);
+            List<String> segmentFiles = new ArrayList<>(count);
+            List<BitSet> deleted = new ArrayList<>(count);
+            for (int seg = 0; seg < count; seg++) {
+                String file = in.readUTF();
+                long[] words = new long[in.readInt()];
+                for (int i = 0; i < words.length; i++) {
+                    words[i] = in.readLong();
+                }
+                segments.add(IndexSegment.readFrom(directory.resolve(file)));
+                segmentFiles.add(file);
+                deleted.add(BitSet.valueOf(words));
+            }
+            return new IndexState(generation, segments, segmentFiles, deleted);
+        } catch (IOException e) {
+            System.err.println("Could not read text index, rebuilding: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void startWatcher() {
+        Path directory = Paths.get(directoryPath);
+        if (!watchEnabled || !Files.isDirectory(directory)) {
+            return;
+        }
+        try {
+            WatchService watcher = directory.getFileSystem().newWatchService();
+            directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            watchService = watcher;
+            Thread thread = new Thread(() -> watchLoop(watcher), "textfiles-watcher");
+            thread.setDaemon(true);
+            thread.start();
+        } catch (IOException e) {
+            System.err.println("Could not watch " + directory + ", index will only change on reindex: " + e.getMessage());
+        }
+    }
+
+    // Collects changed file names and applies them once the directory has been quiet for DEBOUNCE_MS
+    private void watchLoop(WatchService watcher) {
+        Set<String> changed = new HashSet<>();
+        boolean overflow = false;
+        long firstChangeAt = 0;
+        try {
+            while (true) {
+                boolean pending = overflow || !changed.isEmpty();
+                WatchKey key = pending ? watcher.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS) : watcher.take();
+                if (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            overflow = true;  // Events were lost: rescan the whole directory
+                        } else {
+                            String name = event.context().toString();
+                            if (name.toLowerCase().endsWith(".txt")) {
+                                changed.add(name);
+                            }
+                        }
+                    }
+                    if (!key.reset()) {
+                        System.out.println("Stopped watching " + directoryPath + ": directory is no longer accessible.");
+                        return;
+                    }
+                    if (firstChangeAt == 0 && (overflow || !changed.isEmpty())) {
+                        firstChangeAt = System.currentTimeMillis();
+                    }
+                }
+                boolean quiet = key == null;
+                boolean overdue = firstChangeAt != 0 && System.currentTimeMillis() - firstChangeAt > MAX_BATCH_DELAY_MS;
+                if ((quiet || overdue) && (overflow || !changed.isEmpty())) {
+                    try {
+                        applyChanges(overflow ? null : changed);
+                    } catch (RuntimeException e) {
+                        System.err.println("Text index update failed: " + e.getMessage());
+                    }
+                    changed = new HashSet<>();
+                    overflow = false;
+                    firstChangeAt = 0;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Shutting down
+        }
+    }
+
+    private List<String> listTextFileNames() {
+        List<String> names = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get(directoryPath))) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                if (name.toLowerCase().endsWith(".txt") && Files.isRegularFile(path)) {
+                    names.add(name);
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("No text files found in directory " + directoryPath + ": " + e.getMessage());
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    private static String segmentFileName(long generation) {
+        return "segment-" + generation + ".idx";
+    }
+
+    private String resolve(String name) {
+        return new File(directoryPath, name).getAbsolutePath();
+    }
+}
+
+
+
+//PhoneService.java:---------------------------------------------------------------------------------------------------
+
+package com.example.phone_comparison_backend.service;
+import com.example.phone_comparison_backend.model.CatalogSnapshot;
+import com.example.phone_comparison_backend.model.Phone;
+import com.example.phone_comparison_backend.model.PhoneComparison;
+import com.example.phone_comparison_backend.model.PhonePage;
+import com.example.phone_comparison_backend.model.PhoneSummary;
+import com.example.phone_comparison_backend.model.SearchTerm;
+import com.example.phone_comparison_backend.repository.PhoneRepository;
+import com.example.phone_comparison_backend.repository.SearchTermRepository;
+import com.example.phone_comparison_backend.util.AhoCorasick;
+import com.example.phone_comparison_backend.util.MappedWordSearch;
+import com.example.phone_comparison_backend.util.SpecParser;
+import com.example.phone_comparison_backend.util.WordCompletion;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import com.opencsv.CSVReader;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+
+
+@Service
+public class PhoneService {
+
+    private static final int MAX_FILE_MATCHES = 10_000; // Cap on offsets returned by the memory-mapped file search
+    private static final int MAX_CACHED_AUTOMATA = 64;  // Term sets whose word-count automaton is kept
+    private static final int FREQUENCY_QUERY_CHUNK = 500; // Model names per search frequency query
+
+    // Word-count automata by sorted term set, in access order so the least recently used is evicted.
+    // Guarded by its own monitor; the automata themselves are immutable.
+    private final LinkedHashMap<List<String>, AhoCorasick> wordCountAutomata = new LinkedHashMap<>(16, 0.75f, true);
+
+    @Autowired
+    private PhoneRepository phoneRepository;
+
+    @Autowired
+    private SearchTermRepository searchTermRepository;
+
+    @Autowired
+    private SpellCheckService spellCheckService;
+
+    @Autowired
+    private WordCompletion wordCompletion;
+
+    @Autowired
+    private DocumentFileReaderService documentFileReaderService;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private SearchTermService searchTermService;
+
+    @Autowired
+    private TrendingSearchService trendingSearchService;
+
+    @Autowired
+    private PhoneSearchIndexService phoneSearchIndexService;
+
+    @Autowired
+    private CatalogSuffixIndexService catalogSuffixIndexService;
+
+    @Autowired
+    private PhoneSorterService phoneSorterService;
+
+    @Value("${phones.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${phones.page.max-size:500}")
+    private int maxPageSize;
+
+    @PostConstruct
+    public void registerCatalogListeners() {
+        // Word completion is rebuilt from each new catalog snapshot, never from request threads
+        catalogSnapshotService.addReloadListener(this::rebuildWordCompletion);
+        // Completion ranking follows search frequencies as they are written
+        searchTermService.addFlushListener(this::refreshCompletionScores);
+    }
+
+    public void rebuildWordCompletion(CatalogSnapshot snapshot) {
+        List<String> models = new ArrayList<>(snapshot.size());
+        for (Phone phone : snapshot.getPhones()) {
+            models.add(phone.getModel());
+        }
+        Map<String, Long> frequencies = loadSearchFrequencies(models);
+        wordCompletion.rebuild(models, model -> frequencies.getOrDefault(model, 0L));
+    }
+
+    // Add the increments a flush just wrote to the completion scores, no database round trip
+    public void refreshCompletionScores(Map<String, Long> flushed) {
+        wordCompletion.addScores(flushed);
+    }
+
+    // Search frequency per lowercase model name, used as the completion ranking score. Only the
+    // catalog's models are read, in chunks, not the whole (unbounded) search term table.
+    private Map<String, Long> loadSearchFrequencies(List<String> models) {
+        List<String> terms = models.stream()
+                .filter(Objects::nonNull)
+                .map(String::toLowerCase)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<String, Long> frequencies = new HashMap<>();
+        for (int from = 0; from < terms.size(); from += FREQUENCY_QUERY_CHUNK) {
+            List<String> chunk = terms.subList(from, Math.min(terms.size(), from + FREQUENCY_QUERY_CHUNK));
+            for (SearchTerm searchTerm : searchTermRepository.findByLowercaseTermIn(chunk)) {
+                frequencies.merge(searchTerm.getTerm().toLowerCase(), (long) searchTerm.getFrequency(), Long::sum);
+            }
+        }
+        return frequencies;
+    }
+
+    public void loadPhonesFromCsv() throws Exception {
+        List<Phone> phoneList = new ArrayList<>();
+        try (CSVReader csvReader = new CSVReader(new InputStreamReader(
+                new ClassPathResource("phones.csv").getInputStream()))) {
+            String[] line;
+            csvReader.readNext(); // Skip header
+            while ((line = csvReader.readNext()) != null) {
+                String model = line[0];
+                String imageUrl = line[1];
+                // Price and cents come from the same parse; an unknown price is stored as 0.0 with null cents
+                Long priceCents = parsePriceCents(line[2]);
+                Float price = priceCents == null ? 0.0f : priceCents / 100f;
+                String company = line[3];
+                String productLink = line.length > 4 ? line[4] : "";
+
+                // New fields
+                String os = line.length > 5 ? line[5] : "";
+                String ram = line.length > 6 ? line[6] : "";
+                String rom = line.length > 7 ? line[7] : "";
+                String is5G = line.length > 8 ? line[8].trim().equalsIgnoreCase("Supported") ? "Yes" : "No" : "No";
+            String isDualSim = line.length > 9 ? line[9].trim().equalsIgnoreCase("Supported") ? "Yes" : "No" : "No";
+            String hasFastCharging = line.length > 11 ? line[11].trim().equalsIgnoreCase("Supported") ? "Yes" : "No" : "No";
+
+            // Bluetooth version and other fields
+            String bluetoothVersion = line.length > 10 ? line[10].trim().replace(",", ";") : "";
+
+                Phone phone = new Phone(model, imageUrl, price, company, productLink);
+                phone.setOs(os);
+                phone.setRam(ram);
+                phone.setRom(rom);
+                phone.set5G(is5G);
+                phone.setDualSim(isDualSim);
+                phone.setBluetoothVersion(bluetoothVersion);
+                phone.setHasFastCharging(hasFastCharging);
+                applyParsedSpecs(phone, priceCents);
+
+                phoneList.add(phone);
+            }
+        }
+        phoneRepository.saveAll(phoneList);
+    }
+
+    // Fills the typed spec columns of rows stored before they existed; returns how many were updated
+    public int backfillParsedSpecs() {
+        List<Phone> missing = new ArrayList<>();
+        for (Phone phone : phoneRepository.findAll()) {
+            if (!Boolean.TRUE.equals(phone.getSpecsParsed())) {
+                applyParsedSpecs(phone, SpecParser.toCents(phone.getPrice()));
+                missing.add(phone);
+            }
+        }
+        if (!missing.isEmpty()) {
+            phoneRepository.saveAll(missing);
+        }
+        return missing.size();
+    }
+
+    // Derive the normalized spec columns from the raw text ones; priceCents is null when unknown
+    private static void applyParsedSpecs(Phone phone, Long priceCents) {
+        phone.setPriceCents(priceCents);
+        phone.setRamMb(SpecParser.parseMegabytes(phone.getRam()));
+        phone.setRomMb(SpecParser.parseMegabytes(phone.getRom()));
+        phone.setFiveGSupported(SpecParser.parseSupported(phone.getIs5G()));
+        phone.setDualSimSupported(SpecParser.parseSupported(phone.getIsDualSim()));
+        phone.setFastChargingSupported(SpecParser.parseSupported(phone.getHasFastCharging()));
+        phone.setBluetoothVersionNumber(SpecParser.parseVersion(phone.getBluetoothVersion()));
+        phone.setSpecsParsed(true);
+    }
+
+    public List<Phone> findPhonesByIds(List<Long> phoneIds) {
+        return phoneRepository.findAllById(phoneIds);
+    }
+
+    public PhoneComparison comparePhonesDetailed(Long id1, Long id2) {
         Phone phone1 = phoneRepository.findById(id1)
                 .orElseThrow(() -> new RuntimeException("Phone with id " + id1 + " not found"));
         Phone phone2 = phoneRepository.findById(id2)
                 .orElseThrow(() -> new RuntimeException("Phone with id " + id2 + " not found"));
 
-        StringBuilder comparisonBuilder = new StringBuilder();
+        StringBuilder comparisonBuilder = new StringBuilder();
+
+        // Compare OS
+        if (!phone1.getOs().equals(phone2.getOs())) {
+            comparisonBuilder.append("Different OS: ").append(phone1.getOs()).append(" vs ").append(phone2.getOs()).append(".\n");
+        } else {
+            comparisonBuilder.append("Same OS: ").append(phone1.getOs()).append(".\n");
+        }
+
+        // Compare RAM
+        if (!phone1.getRam().equals(phone2.getRam())) {
+            comparisonBuilder.append("Different RAM: ").append(phone1.getRam()).append(" vs ").append(phone2.getRam()).append(".\n");
+        } else {
+            comparisonBuilder.append("Same RAM: ").append(phone1.getRam()).append(".\n");
+        }
+
+        // Compare ROM
+        if (!phone1.getRom().equals(phone2.getRom())) {
+            comparisonBuilder.append("Different ROM: ").append(phone1.getRom()).append(" vs ").append(phone2.getRom()).append(".\n");
+        } else {
+            comparisonBuilder.append("Same ROM: ").append(phone1.getRom()).append(".\n");
+        }
+
+        // Compare 5G capability
+        if (!phone1.getIs5G().equals(phone2.getIs5G())) {
+            comparisonBuilder.append("5G support differs.\n");
+        } else {
+            comparisonBuilder.append("Both support 5G.\n");
+        }
+
+        // Compare Dual SIM capability
+        if (!phone1.getIsDualSim().equals(phone2.getIsDualSim())) {
+            comparisonBuilder.append("Dual SIM support differs.\n");
+        } else {
+            comparisonBuilder.append("Both support Dual SIM.\n");
+        }
+
+        // Compare Bluetooth version
+        if (!phone1.getBluetoothVersion().equals(phone2.getBluetoothVersion())) {
+            comparisonBuilder.append("Different Bluetooth Version: ").append(phone1.getBluetoothVersion())
+                    .append(" vs ").append(phone2.getBluetoothVersion()).append(".\n");
+        } else {
+            comparisonBuilder.append("Same Bluetooth Version: ").append(phone1.getBluetoothVersion()).append(".\n");
+        }
+
+        // Compare Fast Charging capability
+        if (!phone1.getHasFastCharging().equals(phone2.getHasFastCharging())) {
+            comparisonBuilder.append("Fast Charging support differs.\n");
+        } else {
+            comparisonBuilder.append("Both support Fast Charging.\n");
+        }
+
+        return new PhoneComparison(phone1, phone2, comparisonBuilder.toString());
+    }
+
+    public Map<String, Object> comparePhones(Long phone1Id, Long phone2Id) {
+    Map<String, Object> comparisonData = new HashMap<>();
+
+    Phone phone1 = phoneRepository.findById(phone1Id).orElse(null);
+    Phone phone2 = phoneRepository.findById(phone2Id).orElse(null);
+
+    if (phone1 != null && phone2 != null) {
+        comparisonData.put("Model", Map.of("phone1", phone1.getModel(), "phone2", phone2.getModel()));
+        comparisonData.put("Price", Map.of("phone1", phone1.getPrice(), "phone2", phone2.getPrice()));
+        comparisonData.put("Company", Map.of("phone1", phone1.getCompany(), "phone2", phone2.getCompany()));
+        comparisonData.put("OS", Map.of("phone1", phone1.getOs(), "phone2", phone2.getOs()));
+        comparisonData.put("RAM", Map.of("phone1", phone1.getRam(), "phone2", phone2.getRam()));
+        comparisonData.put("ROM", Map.of("phone1", phone1.getRom(), "phone2", phone2.getRom()));
+        comparisonData.put("5G Support", Map.of("phone1", phone1.getIs5G(), "phone2", phone2.getIs5G()));
+        comparisonData.put("Dual SIM Support", Map.of("phone1", phone1.getIsDualSim(), "phone2", phone2.getIsDualSim()));
+        comparisonData.put("Bluetooth Version", Map.of("phone1", phone1.getBluetoothVersion(), "phone2", phone2.getBluetoothVersion()));
+        comparisonData.put("Fast Charging Support", Map.of("phone1", phone1.getHasFastCharging(), "phone2", phone2.getHasFastCharging()));
+        // Add more features as necessary
+    }
+
+    return comparisonData;
+}
+
+
+    private Long parsePriceCents(String rawPrice) {
+        Long cents = SpecParser.parsePriceCents(rawPrice);
+        if (cents == null && rawPrice != null && !rawPrice.trim().isEmpty()) {
+            System.err.println("Invalid price format: " + rawPrice);
+        }
+        return cents;
+    }
+
+    // Served from the in-memory snapshot; callers get their own list so they can sort it in place
+    public List<Phone> getAllPhones() {
+        return new ArrayList<>(catalogSnapshotService.getSnapshot().getPhones());
+    }
+
+    public long getCatalogVersion() {
+        return catalogSnapshotService.getVersion();
+    }
+
+    // Keyset pagination on id: the cost of a page does not depend on how deep into the catalog it is
+    public PhonePage<Phone> getPhonePage(Long after, Integer size) {
+        CatalogSnapshot snapshot = catalogSnapshotService.getSnapshot();
+        int pageSize = resolvePageSize(size);
+        int start = after == null ? 0 : snapshot.firstOrdinalAfter(after);
+        int end = Math.min(start + pageSize, snapshot.size());
+
+        List<Phone> items = new ArrayList<>(snapshot.getPhones().subList(start, end));
+        Long nextCursor = end < snapshot.size() ? snapshot.getId(end - 1) : null;
+        return new PhonePage<>(items, nextCursor, snapshot.getVersion());
+    }
+
+    public PhonePage<PhoneSummary> getPhoneSummaryPage(Long after, Integer size) {
+        PhonePage<Phone> page = getPhonePage(after, size);
+        List<PhoneSummary> summaries = new ArrayList<>(page.getItems().size());
+        for (Phone phone : page.getItems()) {
+            summaries.add(new PhoneSummary(phone));
+        }
+        return new PhonePage<>(summaries, page.getNextCursor(), page.getCatalogVersion());
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(size, maxPageSize);
+    }
+
+    public List<Phone> searchPhones(String model, String company) {
+        if (model != null && !model.isEmpty()) {
+            trackSearchTerm(model);
+        }
+        if (company != null && !company.isEmpty()) {
+            trackSearchTerm(company);
+        }
+        // Model/company lookups go through the in-memory trigram index instead of LIKE '%x%' scans
+        List<Phone> phones = new ArrayList<>();
+        if (model != null && company != null) {
+            phones = phoneSearchIndexService.findByModelContainingAndCompany(model, company);
+        } else if (model != null) {
+            phones = phoneSearchIndexService.findByModelContaining(model);
+        } else if (company != null) {
+            phones = phoneSearchIndexService.findByCompany(company);
+        } else {
+            phones = phoneRepository.findAll();
+        }
+        return phones;
+    }
+
+    // Same quick sort as the /sort endpoint, which compares prices as primitive cents
+    public List<Phone> sortPhonesByPrice(List<Phone> phones, boolean ascending) {
+        return phoneSorterService.sortByPrice(phones, ascending);
+    }
+
+    public List<Phone> sortPhonesByModel(List<Phone> phones, boolean ascending) {
+        return phoneSorterService.sortByModel(phones, ascending);
+    }
+
+    // Buffered in memory; SearchTermService writes the counts to the database in batches
+    private void trackSearchTerm(String term) {
+        searchTermService.enqueue(term);
+        trendingSearchService.recordSearch(term);
+    }
+
+    public List<SearchTerm> getSearchStatistics() {
+        return searchTermRepository.findAllByOrderByFrequencyDesc();
+    }
+
+    // Most searched terms of all time, from the database
+    public List<SearchTerm> getTopSearchTerms(int limit) {
+        return searchTermRepository.findAllByOrderByFrequencyDesc(PageRequest.of(0, limit));
+    }
+
+    public void initializeSpellCheck() {
+        spellCheckService.loadVocabulary();
+    }
+
+    public List<String> getWordCompletions(String prefix) {
+        return wordCompletion.findSuggestions(prefix.toLowerCase());
+    }
+
+    // Answered from the catalog suffix array instead of rescanning every model and company
+    public int getDatabaseWordCount(String searchTerm) {
+        return catalogSuffixIndexService.countOccurrences(searchTerm);
+    }
+
+    // Counts of many terms at once, keyed by the terms as given. All terms are matched in a single pass
+    // over the catalog's lowercased models and companies, with the same counting rules as
+    // getDatabaseWordCount; empty terms count 0.
+    public Map<String, Long> getDatabaseWordCounts(Collection<String> searchTerms) {
+        List<String> terms = searchTerms.stream()
+                .filter(Objects::nonNull)
+                .map(String::toLowerCase)
+                .filter(term -> !term.isEmpty())
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+        long[] counts = new long[terms.size()];
+        if (!terms.isEmpty()) {
+            AhoCorasick.Counter counter = wordCountAutomaton(terms).newCounter();
+            CatalogSnapshot snapshot = catalogSnapshotService.getSnapshot();
+            for (int i = 0; i < snapshot.size(); i++) {
+                counter.scan(snapshot.getLowerModel(i));
+                counter.scan(snapshot.getLowerCompany(i));
+            }
+            counts = counter.counts();
+        }
+
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (String searchTerm : searchTerms) {
+            if (searchTerm != null) {
+                int index = Collections.binarySearch(terms, searchTerm.toLowerCase());
+                result.put(searchTerm, index >= 0 ? counts[index] : 0L);
+            }
+        }
+        return result;
+    }
+
+    private AhoCorasick wordCountAutomaton(List<String> terms) {
+        synchronized (wordCountAutomata) {
+            AhoCorasick cached = wordCountAutomata.get(terms);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        // Built outside the lock; two requests racing on a new term set just build it twice
+        AhoCorasick automaton = new AhoCorasick(terms);
+        synchronized (wordCountAutomata) {
+            wordCountAutomata.put(terms, automaton);
+            if (wordCountAutomata.size() > MAX_CACHED_AUTOMATA) {
+                wordCountAutomata.remove(wordCountAutomata.keySet().iterator().next());
+            }
+        }
+        return automaton;
+    }
+
+    // Served from the prebuilt completion index: no query and no writes on the request path
+    public List<String> getPhoneModelsByPrefix(String prefix) {
+        System.out.println("Received request to fetch phone models with prefix: " + prefix);
+        if (prefix == null || prefix.trim().isEmpty()) {
+            System.out.println("Prefix is null or empty. Returning empty list.");
+            return List.of();
+        }
+        List<String> models = wordCompletion.findOriginals(prefix);
+        if (models.isEmpty()) {
+            System.out.println("No phone models found with the prefix: " + prefix);
+        }
+        return models;
+    }
+
+    public List<Phone> searchAndRankPhones(String searchTerm) {
+        CatalogSnapshot snapshot = catalogSnapshotService.getSnapshot();
+        Map<Phone, Integer> frequencyMap = new HashMap<>();
+
+        // Count occurrences of the search term in each phone's model and company
+        for (int i = 0; i < snapshot.size(); i++) {
+            int count = countOccurrences(snapshot.getLowerModel(i), searchTerm) + countOccurrences(snapshot.getLowerCompany(i), searchTerm);
+            frequencyMap.put(snapshot.getPhone(i), count);
+        }
+
+        // Sort phones based on frequency in descending order
+        return frequencyMap.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0) // Only include phones with non-zero occurrences
+                .sorted(Map.Entry.<Phone, Integer>comparingByValue().reversed())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    private int countOccurrences(String text, String searchTerm) {
+        if (text == null || searchTerm == null || searchTerm.isEmpty()) {
+            return 0;
+        }
+        return (text.toLowerCase().length() - text.toLowerCase().replace(searchTerm.toLowerCase(), "").length()) / searchTerm.length();
+ 
+    }
+public void demoSearchInFile() throws IOException {
+        String searchWord = "phone";  // Word to search for
+        String filePath = "C:\\Users\\Vidhi\\Documents\\abcd.txt";  // File to search in
+
+        System.out.println("[DEBUG] Starting demo search with word: " + searchWord + " in file: " + filePath);
+
+        List<String> results = searchWordInFile(searchWord, filePath);
+
+        // Debug: Output the results
+        if (results.isEmpty()) {
+            System.out.println("[DEBUG] No occurrences found for the word: " + searchWord);
+        } else {
+            System.out.println("[DEBUG] Occurrences of the word \"" + searchWord + "\":");
+            for (String result : results) {
+                System.out.println("[DEBUG] " + result);
+            }
+        }
+    }
+
+    public List<String> searchWordInFile(String searchWord, String filePath) throws IOException {
+        List<String> results = new ArrayList<>();
+
+        // Debug: Check if search word is empty
+        if (searchWord == null || searchWord.trim().isEmpty()) {
+            System.out.println("[DEBUG] Search word is null or empty. No search will be performed.");
+            return results;  // If the search word is empty, return no results
+        }
+
+        // Ensure searchWord is case-insensitive and trimmed
+        searchWord = searchWord.trim().toLowerCase();
+        System.out.println("[DEBUG] Search word after trimming and converting to lowercase: " + searchWord);
+
+        // Read the content of the file
+        System.out.println("[DEBUG] Reading file from path: " + filePath);
+        String content = documentFileReaderService.readFileContent(filePath).toLowerCase(); // Make content lowercase
+
+        // Debug: Print the content being read from the file
+        System.out.println("[DEBUG] File content read from file: " + content.substring(0, Math.min(content.length(), 100)) + "...");
+        // Print the first 100 characters to avoid overwhelming the logs
+
+        // Use word boundaries to ensure whole word matches
+        String regex = "\\b" + Pattern.quote(searchWord) + "\\b";  // Ensure the word is matched as a whole (not part of another word)
+        System.out.println("[DEBUG] Regex pattern used for matching: " + regex);
+
+        Pattern pattern = Pattern.compile(regex);
+        Matcher matcher = pattern.matcher(content);
+
+        // Find all occurrences of the searchWord in the content using regex
+        int count = 0;
+        while (matcher.find()) {
+            results.add("Found at index: " + matcher.start());
+            count++;
+            // Debug: Log each match's index
+            System.out.println("[DEBUG] Found match at index: " + matcher.start());
+        }
+
+        // Debug: Print results
+        if (count == 0) {
+            System.out.println("[DEBUG] No matches found for the word: " + searchWord);
+        } else {
+            System.out.println("[DEBUG] Total matches found: " + count);
+        }
+
+        return results;
+    }
+
+    // Same search with a choice of engine: memoryMapped scans the file's bytes through FileChannel.map
+    // instead of loading and lowercasing the whole file on the heap
+    public List<String> searchWordInFile(String searchWord, String filePath, boolean memoryMapped) throws IOException {
+        return memoryMapped ? searchWordInMappedFile(searchWord, filePath) : searchWordInFile(searchWord, filePath);
+    }
+
+    // Whole-word, case-insensitive (ASCII) matches reported as byte offsets; suited to multi-GB files
+    public List<String> searchWordInMappedFile(String searchWord, String filePath) throws IOException {
+        List<String> results = new ArrayList<>();
+        if (searchWord == null || searchWord.trim().isEmpty()) {
+            System.out.println("[DEBUG] Search word is null or empty. No search will be performed.");
+            return results;
+        }
+
+        long count = MappedWordSearch.forEachMatch(Paths.get(filePath), searchWord.trim(), MAX_FILE_MATCHES,
+                offset -> results.add("Found at index: " + offset));
+        System.out.println("[DEBUG] Memory-mapped search found " + count + " matches for: " + searchWord.trim()
+                + (count >= MAX_FILE_MATCHES ? " (limit reached)" : ""));
+        return results;
+    }
+
+    
+}
+
+
+
+
+//PhoneFacetService.java:-------------------------------------------------------------------------------------------------
+
+package com.example.phone_comparison_backend.service;
+
+import com.example.phone_comparison_backend.model.CatalogSnapshot;
+import com.example.phone_comparison_backend.model.FacetResult;
+import com.example.phone_comparison_backend.model.Phone;
+import com.example.phone_comparison_backend.util.FacetIndex;
+import com.example.phone_comparison_backend.util.SpecParser;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Server-side faceted filtering over the catalog snapshot (company, OS, RAM, ROM, 5G, dual SIM, fast
+// charging). The facet index is rebuilt from every new snapshot; a request is one bitmap pass for the
+// matches plus one popcount pass for the counts, with no database access. Numeric ranges (RAM >= 8 GB,
+// price <= $600) are checked against the snapshot's primitive spec columns and ANDed in.
+@Service
+public class PhoneFacetService {
+
+    // Range bounds accepted next to attribute values: sizes like "8GB" or "512 MB" (a bare number is GB)
+    // and prices in dollars. Phones whose value is unknown never match a bounded range.
+    public static final Set<String> RANGE_PARAMETERS = Set.of("minRam", "maxRam", "minRom", "maxRom", "minPrice", "maxPrice");
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    // Facet index and the snapshot it was built from, swapped together so ordinals always line up
+    private volatile Indexed current = new Indexed(CatalogSnapshot.empty());
+
+    @PostConstruct
+    public void registerCatalogListener() {
+        catalogSnapshotService.addReloadListener(this::rebuild);
+    }
+
+    public void rebuild(CatalogSnapshot snapshot) {
+        long start = System.currentTimeMillis();
+        current = new Indexed(snapshot);
+        System.out.println("Phone facet index built for catalog v" + snapshot.getVersion() + " in "
+                + (System.currentTimeMillis() - start) + " ms.");
+    }
+
+    // Attribute names accepted by search(), matching the Phone JSON properties
+    public Collection<String> getAttributes() {
+        return current.facets.getAttributes();
+    }
+
+    // Phones having one of the selected values for every selected attribute (values within an attribute
+    // are alternatives) and lying within every given range, at most limit ids in id order, plus value
+    // counts over all the matches. Throws IllegalArgumentException for an unknown attribute or a bound
+    // that does not parse.
+    public FacetResult search(Map<String, ? extends Collection<String>> selections, Map<String, String> ranges, int limit) {
+        Indexed indexed = current;
+        long[] matches = indexed.facets.filter(selections);
+        if (!ranges.isEmpty()) {
+            FacetIndex.and(matches, indexed.inRanges(ranges));
+        }
+        List<Long> ids = new ArrayList<>();
+        for (int ordinal : FacetIndex.toArray(matches, limit)) {
+            ids.add(indexed.snapshot.getId(ordinal));
+        }
+        return new FacetResult(ids, FacetIndex.cardinality(matches), indexed.facets.counts(matches),
+                indexed.snapshot.getVersion());
+    }
+
+    private static final class Indexed {
+        final CatalogSnapshot snapshot;
+        final FacetIndex facets;
+
+        Indexed(CatalogSnapshot snapshot) {
+            this.snapshot = snapshot;
+            FacetIndex.Builder builder = new FacetIndex.Builder(snapshot.size());
+            for (String attribute : List.of("company", "os", "ram", "rom", "is5G", "isDualSim", "hasFastCharging")) {
+                builder.attribute(attribute);
+            }
+            for (int i = 0; i < snapshot.size(); i++) {
+                Phone phone = snapshot.getPhone(i);
+                builder.add("company", i, phone.getCompany())
+                        .add("os", i, phone.getOs())
+                        .add("ram", i, phone.getRam())
+                        .add("rom", i, phone.getRom())
+                        .add("is5G", i, phone.getIs5G())
+                        .add("isDualSim", i, phone.getIsDualSim())
+                        .add("hasFastCharging", i, phone.getHasFastCharging());
+            }
+            this.facets = builder.build();
+        }
+
+        long[] inRanges(Map<String, String> ranges) {
+            long minRam = bound(ranges, "minRam", Long.MIN_VALUE);
+            long maxRam = bound(ranges, "maxRam", Long.MAX_VALUE);
+            long minRom = bound(ranges, "minRom", Long.MIN_VALUE);
+            long maxRom = bound(ranges, "maxRom", Long.MAX_VALUE);
+            long minPrice = bound(ranges, "minPrice", Long.MIN_VALUE);
+            long maxPrice = bound(ranges, "maxPrice", Long.MAX_VALUE);
+            long[] bits = new long[(snapshot.size() + 63) >>> 6];
+            for (int i = 0; i < snapshot.size(); i++) {
+                if (within(snapshot.getRamMb(i), minRam, maxRam)
+                        && within(snapshot.getRomMb(i), minRom, maxRom)
+                        && within(snapshot.getPriceCents(i), minPrice, maxPrice)) {
+                    bits[i >>> 6] |= 1L << i;
+                }
+            }
+            return bits;
+        }
+
+        // An unbounded range also admits unknown values
+        private static boolean within(long value, long min, long max) {
+            if (min == Long.MIN_VALUE && max == Long.MAX_VALUE) {
+                return true;
+            }
+            return value != CatalogSnapshot.UNKNOWN && value >= min && value <= max;
+        }
+
+        private static long bound(Map<String, String> ranges, String name, long unbounded) {
+            String text = ranges.get(name);
+            if (text == null || text.trim().isEmpty()) {
+                return unbounded;
+            }
+            Number value = name.endsWith("Price") ? SpecParser.parseCents(text) : SpecParser.parseMegabytes(text);
+            if (value == null) {
+                throw new IllegalArgumentException("Cannot parse " + name + ": " + text);
+            }
+            return value.longValue();
+        }
+    }
+}
+
+
+
+//PriceIndexService.java:-------------------------------------------------------------------------------------------------
+
+package com.example.phone_comparison_backend.service;
+
+import com.example.phone_comparison_backend.model.CatalogSnapshot;
+import com.example.phone_comparison_backend.model.Phone;
+import com.example.phone_comparison_backend.model.PriceRangeResult;
+import com.example.phone_comparison_backend.util.PriceIndex;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Price range queries over the catalog, overall or within one company. The primitive price index is
+// sorted once per catalog version, from the snapshot's parsed cent prices, and swapped in with it.
+@Service
+public class PriceIndexService {
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    // Price index and the snapshot it was built from, swapped together so ordinals always line up
+    private volatile Indexed current = new Indexed(CatalogSnapshot.empty());
+
+    @PostConstruct
+    public void registerCatalogListener() {
+        catalogSnapshotService.addReloadListener(this::rebuild);
+    }
+
+    public void rebuild(CatalogSnapshot snapshot) {
+        long start = System.currentTimeMillis();
+        Indexed indexed = new Indexed(snapshot);
+        current = indexed;
+        System.out.println("Price index built for catalog v" + snapshot.getVersion() + ": " + indexed.prices.size()
+                + " priced phones in " + (System.currentTimeMillis() - start) + " ms.");
+    }
+
+    // Up to limit phones priced within [minCents, maxCents] (null = unbounded), optionally of one company
+    // (case-insensitive), cheapest first or, with descending, most expensive first
+    public PriceRangeResult findByPriceRange(Long minCents, Long maxCents, String company, boolean descending, int limit) {
+        Indexed indexed = current;
+        PriceIndex.Slice slice = indexed.prices.range(company == null ? null : company.toLowerCase(),
+                minCents == null ? Long.MIN_VALUE : minCents, maxCents == null ? Long.MAX_VALUE : maxCents);
+        int count = Math.min(limit, slice.size());
+        List<Phone> phones = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            phones.add(indexed.snapshot.getPhone(slice.doc(descending ? slice.size() - 1 - i : i)));
+        }
+        return new PriceRangeResult(phones, slice.size(), indexed.snapshot.getVersion());
+    }
+
+    private static final class Indexed {
+        final CatalogSnapshot snapshot;
+        final PriceIndex prices;
+
+        Indexed(CatalogSnapshot snapshot) {
+            this.snapshot = snapshot;
+            long[] cents = new long[snapshot.size()];
+            String[] companies = new String[snapshot.size()];
+            for (int i = 0; i < snapshot.size(); i++) {
+                cents[i] = snapshot.getPriceCents(i);
+                companies[i] = snapshot.getLowerCompany(i);
+            }
+            this.prices = new PriceIndex(cents, companies);
+        }
+    }
+}
+
+
+
+//PhoneSearchIndexService.java:-------------------------------------------------------------------------------------------
+
+package com.example.phone_comparison_backend.service;
+
+import com.example.phone_comparison_backend.model.CatalogSnapshot;
+import com.example.phone_comparison_backend.model.Phone;
+import com.example.phone_comparison_backend.util.TrigramIndex;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Substring search over phone models and companies without going to the database. Trigram indexes
+// over the snapshot's lowercased model and company strings are rebuilt on every catalog reload, so a
+// search costs the trigram lists it intersects plus the candidates it verifies, not a table scan.
+// Matching is case-insensitive, like the MySQL collation the repository queries relied on.
+@Service
+public class PhoneSearchIndexService {
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    // Indexes and the snapshot they were built from, swapped together so ordinals always line up
+    private volatile Indexed current = new Indexed(CatalogSnapshot.empty());
+
+    @PostConstruct
+    public void registerCatalogListener() {
+        catalogSnapshotService.addReloadListener(this::rebuild);
+    }
+
+    public void rebuild(CatalogSnapshot snapshot) {
+        long start = System.currentTimeMillis();
+        Indexed indexed = new Indexed(snapshot);
+        current = indexed;
+        System.out.println("Phone search index built for catalog v" + snapshot.getVersion() + ": "
+                + indexed.models.trigramCount() + " model and " + indexed.companies.trigramCount()
+                + " company trigrams in " + (System.currentTimeMillis() - start) + " ms.");
+    }
+
+    // Phones whose model contains the text, ordered by id
+    public List<Phone> findByModelContaining(String model) {
+        Indexed indexed = current;
+        return indexed.phones(indexed.models.contains(model.toLowerCase()));
+    }
+
+    // Phones whose model contains the text and whose company is the given one, ordered by id
+    public List<Phone> findByModelContainingAndCompany(String model, String company) {
+        Indexed indexed = current;
+        int[] byModel = indexed.models.contains(model.toLowerCase());
+        String lowerCompany = company.toLowerCase();
+        List<Phone> phones = new ArrayList<>();
+        for (int ordinal : byModel) {
+            if (indexed.snapshot.getLowerCompany(ordinal).equals(lowerCompany)) {
+                phones.add(indexed.snapshot.getPhone(ordinal));
+            }
+        }
+        return phones;
+    }
+
+    // Phones of the given company, ordered by id
+    public List<Phone> findByCompany(String company) {
+        Indexed indexed = current;
+        return indexed.phones(indexed.companies.equalTo(company.toLowerCase()));
+    }
+
+    private static final class Indexed {
+        final CatalogSnapshot snapshot;
+        final TrigramIndex models;
+        final TrigramIndex companies;
+
+        Indexed(CatalogSnapshot snapshot) {
+            this.snapshot = snapshot;
+            String[] lowerModels = new String[snapshot.size()];
+            String[] lowerCompanies = new String[snapshot.size()];
+            for (int i = 0; i < snapshot.size(); i++) {
+                lowerModels[i] = snapshot.getLowerModel(i);
+                lowerCompanies[i] = snapshot.getLowerCompany(i);
+            }
+            this.models = new TrigramIndex(lowerModels);
+            this.companies = new TrigramIndex(lowerCompanies);
+        }
+
+        List<Phone> phones(int[] ordinals) {
+            List<Phone> phones = new ArrayList<>(ordinals.length);
+            for (int ordinal : ordinals) {
+                phones.add(snapshot.getPhone(ordinal));
+            }
+            return phones;
+        }
+    }
+}
+
+
+
+//PhoneSorterService.java:-------------------------------------------------------------------------------------------------
+package com.example.phone_comparison_backend.service;
+
+import com.example.phone_comparison_backend.model.Phone;
+import com.example.phone_comparison_backend.util.SpecParser;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class PhoneSorterService {
+
+    // Quick Sort for price; the keys are extracted once as primitive cents, so comparisons never unbox
+    public List<Phone> sortByPrice(List<Phone> phones, boolean ascending) {
+        long[] cents = new long[phones.size()];
+        for (int i = 0; i < cents.length; i++) {
+            cents[i] = priceCents(phones.get(i));
+        }
+        quickSort(cents, phones, 0, phones.size() - 1, ascending);
+        return phones;
+    }
+
+    // Quick Sort for model name
+    public List<Phone> sortByModel(List<Phone> phones, boolean ascending) {
+        quickSort(phones, 0, phones.size() - 1, ascending, "model");
+        return phones;
+    }
+
+    // Quick Sort implementation
+    private void quickSort(List<Phone> phones, int low, int high, boolean ascending, String sortBy) {
+        if (low < high) {
+            int pivotIndex = partition(phones, low, high, ascending, sortBy);
+            quickSort(phones, low, pivotIndex - 1, ascending, sortBy);  // Left part
+            quickSort(phones, pivotIndex + 1, high, ascending, sortBy); // Right part
+        }
+    }
+
+    // Quick Sort over price keys, moving the phones along with their keys
+    private void quickSort(long[] cents, List<Phone> phones, int low, int high, boolean ascending) {
+        if (low < high) {
+            int pivotIndex = partition(cents, phones, low, high, ascending);
+            quickSort(cents, phones, low, pivotIndex - 1, ascending);
+            quickSort(cents, phones, pivotIndex + 1, high, ascending);
+        }
+    }
+
+    private int partition(long[] cents, List<Phone> phones, int low, int high, boolean ascending) {
+        long pivot = cents[high];
+        int i = low - 1;
+        for (int j = low; j < high; j++) {
+            if (ascending ? cents[j] < pivot : cents[j] > pivot) {
+                i++;
+                swap(cents, phones, i, j);
+            }
+        }
+        swap(cents, phones, i + 1, high);
+        return i + 1;
+    }
+
+    // Unknown prices sort as 0, matching the 0.0 the CSV loader puts in the Float price
+    private long priceCents(Phone phone) {
+        Long cents = Boolean.TRUE.equals(phone.getSpecsParsed()) ? phone.getPriceCents() : SpecParser.toCents(phone.getPrice());
+        return cents == null ? 0L : cents;
+    }
+
+    private void swap(long[] cents, List<Phone> phones, int i, int j) {
+        long key = cents[i];
+        cents[i] = cents[j];
+        cents[j] = key;
+        swap(phones, i, j);
+    }
+
+    // Partition function for Quick Sort
+    private int partition(List<Phone> phones, int low, int high, boolean ascending, String sortBy) {
+        Phone pivot = phones.get(high); // Last element as pivot
+        int i = low - 1;
+
+        for (int j = low; j < high; j++) {
+            boolean condition = false;
+
+            // Sort by model
+            if ("model".equalsIgnoreCase(sortBy)) {
+                condition = ascending ? phones.get(j).getModel().compareTo(pivot.getModel()) < 0 : phones.get(j).getModel().compareTo(pivot.getModel()) > 0;
+            }
+
+            // Swap if condition is met
+            if (condition) {
+                i++;
+                swap(phones, i, j);
+            }
+        }
+
+        // Swap pivot element to correct position
+        swap(phones, i + 1, high);
+
+        return i + 1;
+    }
+
+    // Utility method to swap two elements in the list
+    private void swap(List<Phone> phones, int i, int j) {
+        Phone temp = phones.get(i);
+        phones.set(i, phones.get(j));
+        phones.set(j, temp);
+    }
+}
+
+
+
+//SearchTermService.java:-----------------------------------------------------------------------------------------------
+package com.example.phone_comparison_backend.service;
+
+import com.example.phone_comparison_backend.model.SearchTerm;
+import com.example.phone_comparison_backend.model.SearchTermFlushStats;
+import com.example.phone_comparison_backend.repository.SearchTermRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Search terms are counted in memory on the request thread and written to the database in batches
+// (write-behind), on a fixed schedule or as soon as enough increments are pending. Each flush is one
+// JDBC batch of MySQL upserts against the unique key on search_term.term, so instances sharing the
+// database can flush concurrently without inserting a term twice.
+@Service
+public class SearchTermService {
+
+    // VALUES() rather than a row alias keeps this working on MySQL versions before 8.0.19
+    private static final String UPSERT_SQL = "INSERT INTO search_term (term, frequency) VALUES (?, ?) "
+            + "ON DUPLICATE KEY UPDATE frequency = frequency + VALUES(frequency)";
+
+    @Autowired
+    private SearchTermRepository searchTermRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${search.terms.flush-threshold:1000}")
+    private long flushThreshold;
+
+    // Increments not yet written, per term; merge() and remove() are atomic so no increment is lost
+    private final ConcurrentHashMap<String, Long> pendingIncrements = new ConcurrentHashMap<>();
+    private final AtomicLong pendingCount = new AtomicLong();
+    private final AtomicLong oldestPendingAt = new AtomicLong();   // 0 when nothing is pending
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-term-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final List<Consumer<Map<String, Long>>> flushListeners = new CopyOnWriteArrayList<>();
+
+    private volatile long lastFlushAt;
+    private volatile long lastFlushDurationMs;
+    private volatile int lastFlushTerms;
+    private final AtomicLong totalFlushedIncrements = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+
+    public void recordSearchTerm(String term) {
+        if (term == null || term.trim().isEmpty()) {
+            return;
+        }
+
+        term = term.toLowerCase(); // Normalize term for case-insensitive tracking
+        enqueue(term);
+    }
+
+    // Counts the term exactly as given; PhoneService tracks model and company searches this way
+    void enqueue(String term) {
+        pendingIncrements.merge(term, 1L, Long::sum);
+        oldestPendingAt.compareAndSet(0, System.currentTimeMillis());
+        if (pendingCount.incrementAndGet() >= flushThreshold && flushScheduled.compareAndSet(false, true)) {
+            try {
+                flushExecutor.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                flushScheduled.set(false);  // Shutting down; the final flush picks these up
+            }
+        }
+    }
+
+    // Runs after every flush that wrote something with the increments it wrote, per term, e.g. to
+    // refresh rankings built from frequencies
+    public void addFlushListener(Consumer<Map<String, Long>> listener) {
+        flushListeners.add(listener);
+    }
+
+    @Scheduled(fixedDelayString = "${search.terms.flush-interval-ms:5000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    // Writes all pending increments as one batch of atomic "frequency = frequency + n" upserts
+    public synchronized void flush() {
+        flushScheduled.set(false);
+        if (pendingIncrements.isEmpty()) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        oldestPendingAt.set(0);
+        Map<String, Long> batch = new HashMap<>();
+        for (String term : new ArrayList<>(pendingIncrements.keySet())) {
+            Long amount = pendingIncrements.remove(term);
+            if (amount != null) {
+                batch.put(term, amount);
+                pendingCount.addAndGet(-amount);
+            }
+        }
+
+        // Sorted by term so concurrent flushes from several instances lock rows in the same order
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (Map.Entry<String, Long> entry : new TreeMap<>(batch).entrySet()) {
+            rows.add(new Object[]{entry.getKey(), (int) Math.min(Integer.MAX_VALUE, entry.getValue())});
+        }
+
+        try {
+            // Sent as multi-row statements with rewriteBatchedStatements=true on the connection URL; the
+            // transaction keeps the batch all-or-nothing, so a failed flush can be retried as a whole
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_SQL, rows));
+        } catch (RuntimeException e) {
+            // Put the batch back so the next flush retries it
+            failedFlushes.incrementAndGet();
+            for (Map.Entry<String, Long> entry : batch.entrySet()) {
+                pendingIncrements.merge(entry.getKey(), entry.getValue(), Long::sum);
+                pendingCount.addAndGet(entry.getValue());
+            }
+            oldestPendingAt.compareAndSet(0, start);
+            System.out.println("Search term flush failed, " + batch.size() + " terms will be retried: " + e.getMessage());
+            return;
+        }
+
+        long flushed = 0;
+        for (Long amount : batch.values()) {
+            flushed += amount;
+        }
+        totalFlushedIncrements.addAndGet(flushed);
+        lastFlushTerms = batch.size();
+        lastFlushAt = System.currentTimeMillis();
+        lastFlushDurationMs = lastFlushAt - start;
+
+        Map<String, Long> written = Collections.unmodifiableMap(batch);
+        for (Consumer<Map<String, Long>> listener : flushListeners) {
+            try {
+                listener.accept(written);
+            } catch (RuntimeException e) {
+                System.out.println("Search term flush listener failed: " + e.getMessage());
+            }
+        }
+    }
+
+    public SearchTermFlushStats getFlushStats() {
+        long oldest = oldestPendingAt.get();
+        long lag = oldest == 0 || pendingCount.get() == 0 ? 0 : System.currentTimeMillis() - oldest;
+        return new SearchTermFlushStats(pendingIncrements.size(), pendingCount.get(), lag, lastFlushAt,
+                lastFlushDurationMs, lastFlushTerms, totalFlushedIncrements.get(), failedFlushes.get());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushExecutor.shutdown();
+        try {
+            flushExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();  // Nothing buffered is lost on a graceful shutdown
+    }
+
+    public Iterable<SearchTerm> getAllSearchTerms() {
+        return searchTermRepository.findAll();
+    }
+}
+
+
+
+//TrendingSearchService.java:--------------------------------------------------------------------------------------------
+package com.example.phone_comparison_backend.service;
+
+import com.example.phone_comparison_backend.model.SearchTerm;
+import com.example.phone_comparison_backend.util.DecayingHeavyHitters;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// "What's trending" per time window. Each window is a DecayingHeavyHitters whose lifetime is the
+// window length, so a search from one window-length ago counts about a third as much as one now.
+// Memory and query cost depend only on the configured capacity, not on the number of distinct terms.
+// Request threads only queue their searches (lock-free); one drainer at a time feeds the windows,
+// on a fixed schedule and before every query, so their locks are never contended.
+@Service
+public class TrendingSearchService {
+
+    private static final int SKETCH_WIDTH = 4096;
+    private static final int MAX_PENDING_SEARCHES = 100_000; // Searches queued beyond this are dropped
+
+    // A queued search and when it happened, so decay is applied to its own time
+    private static final class Search {
+        final String term;
+        final long at;
+
+        Search(String term, long at) {
+            this.term = term;
+            this.at = at;
+        }
+    }
+
+    private final Map<String, DecayingHeavyHitters> windows = new LinkedHashMap<>();
+    private final ConcurrentLinkedQueue<Search> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final Object drainLock = new Object();
+
+    public TrendingSearchService(@Value("${search.trending.capacity:100}") int capacity) {
+        long now = System.currentTimeMillis();
+        windows.put("5m", new DecayingHeavyHitters(capacity, SKETCH_WIDTH, 5 * 60_000L, now));
+        windows.put("1h", new DecayingHeavyHitters(capacity, SKETCH_WIDTH, 60 * 60_000L, now));
+        windows.put("1d", new DecayingHeavyHitters(capacity, SKETCH_WIDTH, 24 * 60 * 60_000L, now));
+    }
+
+    public void recordSearch(String term) {
+        if (term == null || term.trim().isEmpty()) {
+            return;
+        }
+        // Trending is approximate, so under a burst beyond the buffer a search is dropped, not waited on
+        if (pendingCount.incrementAndGet() > MAX_PENDING_SEARCHES) {
+            pendingCount.decrementAndGet();
+            return;
+        }
+        pending.offer(new Search(term.trim().toLowerCase(), System.currentTimeMillis()));
+    }
+
+    // Feeds queued searches into every window, oldest first
+    @Scheduled(fixedDelayString = "${search.trending.drain-interval-ms:1000}")
+    public void drain() {
+        synchronized (drainLock) {
+            Search search;
+            while ((search = pending.poll()) != null) {
+                pendingCount.decrementAndGet();
+                for (DecayingHeavyHitters window : windows.values()) {
+                    window.add(search.term, search.at);
+                }
+            }
+        }
+    }
+
+    public Set<String> getWindows() {
+        return windows.keySet();
+    }
+
+    public boolean isWindow(String window) {
+        return windows.containsKey(window);
+    }
+
+    // Top terms for the window, with frequency as the rounded decayed search count
+    public List<SearchTerm> getTrending(String window, int limit) {
+        DecayingHeavyHitters heavyHitters = windows.get(window);
+        if (heavyHitters == null) {
+            throw new IllegalArgumentException("Unknown window: " + window + ", expected one of " + windows.keySet());
+        }
+        drain();  // Include searches made since the last scheduled drain
+        List<SearchTerm> trending = new ArrayList<>();
+        for (DecayingHeavyHitters.Entry entry : heavyHitters.top(limit, System.currentTimeMillis())) {
+            int frequency = (int) Math.round(entry.getCount());
+            if (frequency > 0) {
+                trending.add(new SearchTerm(entry.getItem(), frequency));
+            }
+        }
+        return trending;
+    }
+}
+
+
+
+//SpellCheckService.java:----------------------------------------------------------------------------------------------------
+package com.example.phone_comparison_backend.service;
+
+import com.example.phone_comparison_backend.model.CatalogSnapshot;
+import com.example.phone_comparison_backend.model.SpellSuggestion;
+import com.example.phone_comparison_backend.util.BKTree;
+import com.example.phone_comparison_backend.util.CompactTrie;
+import com.example.phone_comparison_backend.util.EditDistance;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+@Service
+public class SpellCheckService {
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    private static final int DEFAULT_SUGGESTION_LIMIT = 5;
+
+    // Swapped wholesale on reload so lookups never see a half-built Trie
+    private volatile CompactTrie trie;
+
+    // Metric tree over the same vocabulary, used for suggestions
+    private volatile BKTree suggestionTree = new BKTree(this::calculateEditDistance);
+
+    public SpellCheckService() {
+        this.trie = new CompactTrie.Builder().build();
+    }
+
+    @PostConstruct
+    public void registerCatalogListener() {
+        catalogSnapshotService.addReloadListener(this::loadVocabulary);
+    }
+
+    // Load the vocabulary into the Trie from the current catalog snapshot
+    public void loadVocabulary() {
+        loadVocabulary(catalogSnapshotService.getSnapshot());
+    }
+
+    // Load the vocabulary from the given snapshot, e.g. the one a reload listener is handed
+    public void loadVocabulary(CatalogSnapshot snapshot) {
+        CompactTrie.Builder builder = new CompactTrie.Builder();
+        BKTree newTree = new BKTree(this::calculateEditDistance);
+        for (int i = 0; i < snapshot.size(); i++) {
+            insertWord(builder, snapshot.getLowerModel(i));
+            insertWord(builder, snapshot.getLowerCompany(i)); // Load brand names too
+            newTree.insert(snapshot.getLowerModel(i));
+            newTree.insert(snapshot.getLowerCompany(i));
+        }
+        CompactTrie newTrie = builder.build();
+        trie = newTrie;
+        suggestionTree = newTree;
+        System.out.println("Trie built with " + newTrie.wordCount() + " words in " + newTrie.nodeCount()
+                + " nodes (~" + newTrie.footprintBytes() / 1024 + " KB).");
+        System.out.println("BK-tree built with " + newTree.size() + " distinct words.");
+        // Print all words loaded into the Trie
+        System.out.println("Words loaded into the Trie:");
+        List<String> allWords = getAllWordsFromTrie();
+        for (String word : allWords) {
+            System.out.println(word);
+        }
+    }
+
+    // Insert a word into the Trie that is being built
+    private void insertWord(CompactTrie.Builder builder, String word) {
+        builder.insert(word);
+    }
+
+    // Method to check if a word exists in the Trie
+    public boolean checkIfWordExists(String word) {
+        CompactTrie current = trie;
+        int node = CompactTrie.ROOT;
+        for (int i = 0; i < word.length(); i++) {
+            node = current.child(node, word.charAt(i));
+            if (node == CompactTrie.NONE) {
+                return false; // If a character is missing, the word doesn't exist
+            }
+        }
+        return current.isTerminal(node); // Return true only if it's the end of a valid word
+    }
+
+    // Method to retrieve all words in the Trie
+    public List<String> getAllWordsFromTrie() {
+        List<String> result = new ArrayList<>();
+        collectWords(trie, CompactTrie.ROOT, new StringBuilder(), result);
+        return result;
+    }
+
+    private void collectWords(CompactTrie current, int node, StringBuilder prefix, List<String> result) {
+        if (current.isTerminal(node)) {
+            result.add(prefix.toString());
+        }
+        for (int child = current.firstChild(node); child < current.childEnd(node); child++) {
+            prefix.append(current.label(child));
+            collectWords(current, child, prefix, result);
+            prefix.deleteCharAt(prefix.length() - 1);
+        }
+    }
+
+    // Suggest the closest vocabulary words, best first
+    public List<String> suggestWords(String word) {
+        List<String> suggestions = new ArrayList<>();
+        for (SpellSuggestion suggestion : suggestWordsRanked(word, DEFAULT_SUGGESTION_LIMIT, defaultMaxDistance(word))) {
+            suggestions.add(suggestion.getWord());
+        }
+        return suggestions;
+    }
+
+    // Top-k suggestions with their edit distances, served from the BK-tree
+    public List<SpellSuggestion> suggestWordsRanked(String word, int limit, int maxDistance) {
+        if (word == null || word.isEmpty()) {
+            return List.of();
+        }
+        return suggestionTree.search(word.toLowerCase(), maxDistance, limit);
+    }
+
+    // Top-k suggestions found by walking the Trie with one Levenshtein DP row per depth.
+    // Words sharing a prefix share the rows for that prefix, and a branch is abandoned as soon as
+    // the smallest value in its row exceeds the bound, since no extension can bring it back down.
+    public List<SpellSuggestion> suggestWordsFromTrie(String word, int limit, int maxDistance) {
+        if (word == null || word.isEmpty() || limit <= 0 || maxDistance < 0) {
+            return List.of();
+        }
+        String target = word.toLowerCase();
+        CompactTrie current = trie;
+        TrieWalk walk = new TrieWalk(target, limit, maxDistance);
+
+        int[] firstRow = walk.row(0);
+        for (int i = 0; i <= target.length(); i++) {
+            firstRow[i] = i;
+        }
+        StringBuilder prefix = new StringBuilder();
+        for (int child = current.firstChild(CompactTrie.ROOT); child < current.childEnd(CompactTrie.ROOT); child++) {
+            prefix.append(current.label(child));
+            walkTrie(current, child, 1, prefix, walk);
+            prefix.deleteCharAt(prefix.length() - 1);
+        }
+
+        List<SpellSuggestion> result = new ArrayList<>(walk.best);
+        Collections.sort(result);
+        return result;
+    }
+
+    private void walkTrie(CompactTrie current, int node, int depth, StringBuilder prefix, TrieWalk walk) {
+        char c = current.label(node);
+        String target = walk.target;
+        int columns = target.length() + 1;
+        int[] previousRow = walk.row(depth - 1);
+        int[] row = walk.row(depth);
+
+        row[0] = previousRow[0] + 1;
+        int rowMin = row[0];
+        for (int i = 1; i < columns; i++) {
+            int insertCost = row[i - 1] + 1;
+            int deleteCost = previousRow[i] + 1;
+            int replaceCost = previousRow[i - 1] + (target.charAt(i - 1) == c ? 0 : 1);
+            row[i] = Math.min(Math.min(insertCost, deleteCost), replaceCost);
+            rowMin = Math.min(rowMin, row[i]);
+        }
+
+        if (current.isTerminal(node) && row[columns - 1] <= walk.radius) {
+            walk.offer(prefix.toString(), row[columns - 1]);
+        }
+
+        if (rowMin <= walk.radius) {
+            for (int child = current.firstChild(node); child < current.childEnd(node); child++) {
+                prefix.append(current.label(child));
+                walkTrie(current, child, depth + 1, prefix, walk);
+                prefix.deleteCharAt(prefix.length() - 1);
+            }
+        }
+    }
+
+    // State of one bounded Trie walk: DP rows reused per depth and the current top-k
+    private static class TrieWalk {
+        final String target;
+        final int limit;
+        int radius;
+        final PriorityQueue<SpellSuggestion> best = new PriorityQueue<>(Collections.reverseOrder()); // Worst on top
+        // A branch deeper than target.length() + radius always has a row minimum above the radius
+        final int[][] rows;
+
+        TrieWalk(String target, int limit, int radius) {
+            this.target = target;
+            this.limit = limit;
+            this.radius = radius;
+            this.rows = new int[target.length() + radius + 2][];
+        }
+
+        int[] row(int depth) {
+            if (rows[depth] == null) {
+                rows[depth] = new int[target.length() + 1];
+            }
+            return rows[depth];
+        }
+
+        void offer(String word, int distance) {
+            best.offer(new SpellSuggestion(word, distance));
+            if (best.size() > limit) {
+                best.poll();
+            }
+            if (best.size() == limit) {
+                radius = Math.min(radius, best.peek().getDistance());
+            }
+        }
+    }
+
+    // Allow roughly one edit per three characters, but never fewer than two
+    public int defaultMaxDistance(String word) {
+        return Math.max(2, word.length() / 3);
+    }
+
+    // Calculate the edit distance (Levenshtein distance)
+    private int calculateEditDistance(String word1, String word2) {
+        return EditDistance.distance(word1, word2);
+    }
+}
+
+
+
+//util:
+
+//BKTree.java:---------------------------------------------------------------------------------------------------------------
+package com.example.phone_comparison_backend.util;
+
+import com.example.phone_comparison_backend.model.SpellSuggestion;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.ToIntBiFunction;
+
+// Burkhard-Keller tree: a metric tree over edit distance. Built once, then read concurrently.
+public class BKTree {
+
+    private static class Node {
+        final String word;
+        int[] childDistances = new int[0];
+        Node[] children = new Node[0];
+
+        Node(String word) {
+            this.word = word;
+        }
+
+        Node child(int distance) {
+            for (int i = 0; i < childDistances.length; i++) {
+                if (childDistances[i] == distance) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        void addChild(int distance, Node node) {
+            int size = childDistances.length;
+            childDistances = Arrays.copyOf(childDistances, size + 1);
+            children = Arrays.copyOf(children, size + 1);
+            childDistances[size] = distance;
+            children[size] = node;
+        }
+    }
+
+    private final ToIntBiFunction<String, String> metric;
+    private Node root;
+    private int size;
+
+    public BKTree(ToIntBiFunction<String, String> metric) {
+        this.metric = metric;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Insert a word; duplicates are ignored
+    public void insert(String word) {
+        if (word == null || word.isEmpty()) {
+            return;
+        }
+        if (root == null) {
+            root = new Node(word);
+            size++;
+            return;
+        }
+        Node node = root;
+        while (true) {
+            int distance = metric.applyAsInt(word, node.word);
+            if (distance == 0) {
+                return;
+            }
+            Node child = node.child(distance);
+            if (child == null) {
+                node.addChild(distance, new Node(word));
+                size++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    // Return up to limit words within maxDistance of the query, closest first.
+    // By the triangle inequality only children whose edge lies in [d - radius, d + radius] can match,
+    // and the radius shrinks to the current k-th best distance once limit matches are held.
+    public List<SpellSuggestion> search(String query, int maxDistance, int limit) {
+        if (root == null || limit <= 0) {
+            return List.of();
+        }
+        PriorityQueue<SpellSuggestion> best = new PriorityQueue<>(Collections.reverseOrder()); // Worst on top
+        int radius = maxDistance;
+
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            int distance = metric.applyAsInt(query, node.word);
+
+            if (distance <= radius) {
+                best.offer(new SpellSuggestion(node.word, distance));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+                if (best.size() == limit) {
+                    radius = Math.min(radius, best.peek().getDistance());
+                }
+            }
+
+            for (int i = 0; i < node.childDistances.length; i++) {
+                if (Math.abs(node.childDistances[i] - distance) <= radius) {
+                    pending.push(node.children[i]);
+                }
+            }
+        }
+
+        List<SpellSuggestion> result = new ArrayList<>(best);
+        Collections.sort(result);
+        return result;
+    }
+}
+
+
+
+//EditDistance.java:---------------------------------------------------------------------------------------------------------
+package com.example.phone_comparison_backend.util;
+
+// Levenshtein distance without per-call allocation.
+// Strings up to 64 chars use Myers' bit-parallel algorithm (one machine word per column);
+// longer strings fall back to a banded two-row DP. Both stop early once maxDistance is exceeded.
+public final class EditDistance {
+
+    private static final int WORD_SIZE = 64;
+    private static final int INFINITY = Integer.MAX_VALUE / 2;
+
+    // One engine per thread, so the scratch buffers below are never shared
+    private static final ThreadLocal<EditDistance> ENGINE = ThreadLocal.withInitial(EditDistance::new);
+
+    private final long[] asciiPeq = new long[128]; // Match bitmask per ASCII char of the current pattern
+    private int[] previousRow = new int[WORD_SIZE + 1];
+    private int[] currentRow = new int[WORD_SIZE + 1];
+
+    private EditDistance() {
+    }
+
+    // Exact edit distance
+    public static int distance(CharSequence a, CharSequence b) {
+        return ENGINE.get().compute(a, b, Integer.MAX_VALUE);
+    }
+
+    // Edit distance if it is at most maxDistance, otherwise some value greater than maxDistance
+    public static int distance(CharSequence a, CharSequence b, int maxDistance) {
+        return ENGINE.get().compute(a, b, maxDistance);
+    }
+
+    private int compute(CharSequence a, CharSequence b, int maxDistance) {
+        if (maxDistance < 0) {
+            return exceeded(maxDistance);
+        }
+        // The shorter string becomes the pattern
+        CharSequence pattern = a.length() <= b.length() ? a : b;
+        CharSequence text = pattern == a ? b : a;
+        int m = pattern.length();
+        int n = text.length();
+
+        if (n - m > maxDistance) {
+            return exceeded(maxDistance);
+        }
+        if (m == 0) {
+            return n;
+        }
+        return m <= WORD_SIZE ? myers(pattern, text, maxDistance) : banded(pattern, text, maxDistance);
+    }
+
+    private int myers(CharSequence pattern, CharSequence text, int maxDistance) {
+        int m = pattern.length();
+        int n = text.length();
+        for (int i = 0; i < m; i++) {
+            char c = pattern.charAt(i);
+            if (c < 128) {
+                asciiPeq[c] |= 1L << i;
+            }
+        }
+
+        long pv = -1L;
+        long mv = 0L;
+        long lastBit = 1L << (m - 1);
+        int score = m;
+        int result = -1;
+
+        for (int j = 0; j < n; j++) {
+            long eq = peq(pattern, text.charAt(j));
+            long xv = eq | mv;
+            long xh = (((eq & pv) + pv) ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+
+            if ((ph & lastBit) != 0) {
+                score++;
+            } else if ((mh & lastBit) != 0) {
+                score--;
+            }
+
+            // Every remaining column can lower the score by at most one
+            if (score - (n - j - 1) > maxDistance) {
+                result = exceeded(maxDistance);
+                break;
+            }
+
+            ph = (ph << 1) | 1L; // Row 0 grows by one per column
+            mh <<= 1;
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+        }
+
+        // Leave the table clean for the next call instead of reallocating it
+        for (int i = 0; i < m; i++) {
+            char c = pattern.charAt(i);
+            if (c < 128) {
+                asciiPeq[c] = 0L;
+            }
+        }
+        return result >= 0 ? result : score;
+    }
+
+    private long peq(CharSequence pattern, char c) {
+        if (c < 128) {
+            return asciiPeq[c];
+        }
+        long eq = 0L;
+        for (int i = 0; i < pattern.length(); i++) {
+            if (pattern.charAt(i) == c) {
+                eq |= 1L << i;
+            }
+        }
+        return eq;
+    }
+
+    // Two-row DP restricted to the diagonal band |i - j| <= maxDistance (Ukkonen)
+    private int banded(CharSequence shorter, CharSequence longer, int maxDistance) {
+        int m = shorter.length();
+        int n = longer.length();
+        int band = Math.min(maxDistance, n);
+        ensureRowCapacity(m + 1);
+
+        int[] previous = previousRow;
+        int[] current = currentRow;
+        for (int i = 0; i <= m; i++) {
+            previous[i] = i <= band ? i : INFINITY;
+        }
+
+        for (int j = 1; j <= n; j++) {
+            int low = Math.max(1, j - band);
+            int high = Math.min(m, j + band);
+            char c = longer.charAt(j - 1);
+
+            current[0] = j <= band ? j : INFINITY;
+            if (low > 1) {
+                current[low - 1] = INFINITY;
+            }
+            int rowMin = current[0];
+            for (int i = low; i <= high; i++) {
+                int value = previous[i - 1] + (shorter.charAt(i - 1) == c ? 0 : 1);
+                value = Math.min(value, previous[i] + 1);
+                value = Math.min(value, current[i - 1] + 1);
+                current[i] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (high < m) {
+                current[high + 1] = INFINITY;
+            }
+            if (rowMin > maxDistance) {
+                return exceeded(maxDistance);
+            }
+
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[m] > maxDistance ? exceeded(maxDistance) : previous[m];
+    }
+
+    private void ensureRowCapacity(int size) {
+        if (previousRow.length < size) {
+            previousRow = new int[size];
+            currentRow = new int[size];
+        }
+    }
+
+    private static int exceeded(int maxDistance) {
+        return maxDistance == Integer.MAX_VALUE ? maxDistance : maxDistance + 1;
+    }
+}
+
+
+
+//CompactTrie.java:----------------------------------------------------------------------------------------------------------
+package com.example.phone_comparison_backend.util;
+
+import java.util.Arrays;
+
+// Read-only trie in flat primitive arrays. Nodes are numbered breadth-first, so the children of
+// node v are the contiguous range [childStart[v], childStart[v + 1]), sorted by label.
+// Per node this costs a char, an int and a bit, instead of a HashMap with boxed keys.
+public final class CompactTrie {
+
+    public static final int ROOT = 0;
+    public static final int NONE = -1;
+
+    private final char[] labels;     // Edge label leading into each node (unused for the root)
+    private final int[] childStart;  // nodeCount + 1 entries
+    private final long[] terminal;   // Bit set: node ends a word
+    private final int wordCount;
+
+    private CompactTrie(char[] labels, int[] childStart, long[] terminal, int wordCount) {
+        this.labels = labels;
+        this.childStart = childStart;
+        this.terminal = terminal;
+        this.wordCount = wordCount;
+    }
+
+    public int nodeCount() {
+        return labels.length;
+    }
+
+    public int wordCount() {
+        return wordCount;
+    }
+
+    public char label(int node) {
+        return labels[node];
+    }
+
+    public int firstChild(int node) {
+        return childStart[node];
+    }
+
+    // Exclusive end of the child range
+    public int childEnd(int node) {
+        return childStart[node + 1];
+    }
+
+    public boolean isTerminal(int node) {
+        return (terminal[node >>> 6] & (1L << node)) != 0;
+    }
+
+    // Binary search among the sorted children of node
+    public int child(int node, char c) {
+        int low = childStart[node];
+        int high = childStart[node + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char label = labels[mid];
+            if (label < c) {
+                low = mid + 1;
+            } else if (label > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return NONE;
+    }
+
+    // Approximate heap footprint of the arrays, for logging
+    public long footprintBytes() {
+        return 16L + labels.length * 2L + 16L + childStart.length * 4L + 16L + terminal.length * 8L;
+    }
+
+    // Mutable first-child / next-sibling trie used only while loading; build() freezes it
+    public static final class Builder {
+
+        private char[] labels = new char[64];
+        private int[] firstChild = new int[64];
+        private int[] nextSibling = new int[64];
+        private boolean[] terminal = new boolean[64];
+        private int size = 1; // Node 0 is the root
+        private int wordCount;
+
+        public Builder() {
+            firstChild[0] = NONE;
+            nextSibling[0] = NONE;
+        }
+
+        public void insert(String word) {
+            int node = ROOT;
+            for (int i = 0; i < word.length(); i++) {
+                node = childOrCreate(node, word.charAt(i));
+            }
+            if (!terminal[node]) {
+                terminal[node] = true;
+                wordCount++;
+            }
+        }
+
+        // Siblings are kept sorted by label so build() can emit them in order
+        private int childOrCreate(int node, char c) {
+            int previous = NONE;
+            int current = firstChild[node];
+            while (current != NONE && labels[current] < c) {
+                previous = current;
+                current = nextSibling[current];
+            }
+            if (current != NONE && labels[current] == c) {
+                return current;
+            }
+            int created = newNode(c);
+            nextSibling[created] = current;
+            if (previous == NONE) {
+                firstChild[node] = created;
+            } else {
+                nextSibling[previous] = created;
+            }
+            return created;
+        }
+
+        private int newNode(char c) {
+            if (size == labels.length) {
+                int capacity = size * 2;
+                labels = Arrays.copyOf(labels, capacity);
+                firstChild = Arrays.copyOf(firstChild, capacity);
+                nextSibling = Arrays.copyOf(nextSibling, capacity);
+                terminal = Arrays.copyOf(terminal, capacity);
+            }
+            labels[size] = c;
+            firstChild[size] = NONE;
+            nextSibling[size] = NONE;
+            return size++;
+        }
+
+        // Renumber nodes breadth-first so every child list becomes a contiguous, sorted range
+        public CompactTrie build() {
+            char[] outLabels = new char[size];
+            int[] outChildStart = new int[size + 1];
+            long[] outTerminal = new long[(size + 63) >>> 6];
+            int[] order = new int[size]; // order[newId] = builder node id
+
+            int next = 1;
+            for (int newId = 0; newId < size; newId++) {
+                int node = order[newId];
+                outLabels[newId] = labels[node];
+                if (terminal[node]) {
+                    outTerminal[newId >>> 6] |= 1L << newId;
+                }
+                outChildStart[newId] = next;
+                for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+                    order[next++] = child;
+                }
+            }
+            outChildStart[size] = next;
+            return new CompactTrie(outLabels, outChildStart, outTerminal, wordCount);
+        }
+    }
+}
+
+
+
+//CountMinSketch.java:-------------------------------------------------------------------------------------------------------
+package com.example.phone_comparison_backend.util;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Fixed-size frequency sketch: estimates never undercount, and overcount only through hash collisions.
+// Safe for concurrent use; halve() ages all counts so old popularity fades (TinyLFU style).
+public class CountMinSketch {
+
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final AtomicIntegerArray table;
+    private final int width;   // Power of two
+    private final int depth;
+
+    public CountMinSketch(int expectedItems) {
+        int size = Integer.highestOneBit(Math.max(16, expectedItems) - 1) << 1;
+        this.width = size;
+        this.depth = SEEDS.length;
+        this.table = new AtomicIntegerArray(width * depth);
+    }
+
+    public void increment(Object item) {
+        int hash = spread(item.hashCode());
+        for (int row = 0; row < depth; row++) {
+            int cell = cell(row, hash);
+            if (table.get(cell) < Integer.MAX_VALUE) {
+                table.incrementAndGet(cell);
+            }
+        }
+    }
+
+    public int estimate(Object item) {
+        int hash = spread(item.hashCode());
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, table.get(cell(row, hash)));
+        }
+        return min;
+    }
+
+    // Divide every counter by two
+    public void halve() {
+        for (int i = 0; i < table.length(); i++) {
+            table.getAndUpdate(i, value -> value >>> 1);
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < table.length(); i++) {
+            table.set(i, 0);
+        }
+    }
+
+    private int cell(int row, int hash) {
+        int h = (hash ^ SEEDS[row]) * 0x7FEB352D;
+        h ^= h >>> 15;
+        return row * width + (h & (width - 1));
+    }
+
+    private static int spread(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        return hash ^ (hash >>> 13);
+    }
+}
+
+
+
+//DecayingHeavyHitters.java:-------------------------------------------------------------------------------------------------
+package com.example.phone_comparison_backend.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Streaming top-k over an exponentially decaying window, in memory that does not grow with the
+// number of distinct items. A Count-Min sketch estimates every item's decayed count; a Space-Saving
+// list of `capacity` counters (kept as a min-heap) tracks the heaviest items.
+//
+// Forward decay: an item seen at time t is added with weight e^((t - landmark) / lifetime), so old
+// counts never need to be touched. Dividing by e^((now - landmark) / lifetime) at query time gives
+// the count with each hit weighted e^(-age / lifetime). Counters are rescaled now and then so the
+// weights stay within double range.
+public class DecayingHeavyHitters {
+
+    private static final int DEPTH = 4;
+    private static final double MAX_EXPONENT = 40;  // Rescale once weights reach e^40
+
+    // A heavy hitter with its decayed count at query time
+    public static final class Entry {
+        private final String item;
+        private final double count;
+
+        Entry(String item, double count) {
+            this.item = item;
+            this.count = count;
+        }
+
+        public String getItem() {
+            return item;
+        }
+
+        public double getCount() {
+            return count;
+        }
+    }
+
+    private final double lifetimeMillis;
+    private long landmark;
+
+    // Count-Min sketch over decayed weights
+    private final double[] sketch;
+    private final int width;   // Power of two
+
+    // Space-Saving counters as a min-heap on counts; positions maps item -> heap slot
+    private final String[] items;
+    private final double[] counts;
+    private int size;
+    private final Map<String, Integer> positions;
+
+    public DecayingHeavyHitters(int capacity, int sketchWidth, long lifetimeMillis, long nowMillis) {
+        this.lifetimeMillis = lifetimeMillis;
+        this.landmark = nowMillis;
+        this.width = Integer.highestOneBit(Math.max(16, sketchWidth) - 1) << 1;
+        this.sketch = new double[width * DEPTH];
+        this.items = new String[capacity];
+        this.counts = new double[capacity];
+        this.positions = new HashMap<>(capacity * 2);
+    }
+
+    public synchronized void add(String item, long nowMillis) {
+        double exponent = (nowMillis - landmark) / lifetimeMillis;
+        if (exponent > MAX_EXPONENT) {
+            rescale(nowMillis);
+            exponent = 0;
+        }
+        double weight = Math.exp(exponent);
+
+        // Sketch update, remembering the new estimate
+        int hash = spread(item.hashCode());
+        double estimate = Double.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int cell = cell(row, hash);
+            sketch[cell] += weight;
+            estimate = Math.min(estimate, sketch[cell]);
+        }
+
+        Integer position = positions.get(item);
+        if (position != null) {
+            counts[position] += weight;
+            siftDown(position);
+        } else if (size < items.length) {
+            items[size] = item;
+            counts[size] = weight;
+            positions.put(item, size);
+            siftUp(size++);
+        } else if (items.length > 0) {
+            // Replace the smallest counter. Space-Saving charges the newcomer min + weight; the sketch
+            // estimate is also an upper bound on its count, so use it when tighter, but never go below
+            // the old minimum (evicted items must stay bounded by it).
+            positions.remove(items[0]);
+            items[0] = item;
+            counts[0] = Math.max(counts[0], Math.min(counts[0] + weight, estimate));
+            positions.put(item, 0);
+            siftDown(0);
+        }
+    }
+
+    // The heaviest items, largest decayed count first
+    public synchronized List<Entry> top(int limit, long nowMillis) {
+        double scale = Math.exp(-(nowMillis - landmark) / lifetimeMillis);
+        List<Entry> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(new Entry(items[i], counts[i] * scale));
+        }
+        result.sort((a, b) -> {
+            int byCount = Double.compare(b.count, a.count);
+            return byCount != 0 ? byCount : a.item.compareTo(b.item);
+        });
+        return result.size() > limit ? new ArrayList<>(result.subList(0, Math.max(0, limit))) : result;
+    }
+
+    public int capacity() {
+        return items.length;
+    }
+
+    // Move the landmark to now; one multiplication keeps heap order, so only values change
+    private void rescale(long nowMillis) {
+        double factor = Math.exp(-(nowMillis - landmark) / lifetimeMillis);
+        for (int i = 0; i < sketch.length; i++) {
+            sketch[i] *= factor;
+        }
+        for (int i = 0; i < size; i++) {
+            counts[i] *= factor;
+        }
+        landmark = nowMillis;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (counts[parent] <= counts[i]) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        String item = items[i];
+        items[i] = items[j];
+        items[j] = item;
+        double count = counts[i];
+        counts[i] = counts[j];
+        counts[j] = count;
+        positions.put(items[i], i);
+        positions.put(items[j], j);
+    }
+
+    private int cell(int row, int hash) {
+        int h = (hash + row * 0x9E3779B9) * 0x7FEB352D;
+        h ^= h >>> 15;
+        h *= 0x846CA68B;
+        h ^= h >>> 16;
+        return row * width + (h & (width - 1));
+    }
+
+    private static int spread(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        return hash ^ (hash >>> 13);
+    }
+}
+
+
+
+//IndexSegment.java:--------------------------------------------------------------------------------------------------------
+package com.example.phone_comparison_backend.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Immutable inverted index over a set of text documents: a sorted term dictionary pointing into one
+// byte array of positional postings. For every term, each document containing it stores
+//   varint(docId - previous docId - 1), varint(freq), freq x [varint(position delta), varint(char offset delta)]
+// where position is the token number within the document, counting over-long tokens that are not
+// indexed themselves, so a phrase never matches across one. The dictionary also keeps each term's
+// document frequency and highest per-document frequency, which bound its ranking score.
+// Every SKIP_INTERVAL documents a term also records a skip entry (last doc id of the block, byte
+// offset of the next block), so advance() can jump over whole blocks when intersecting lists. Each document also keeps a line table
+// (char and byte offset at which every line starts), delta-encoded the same way.
+// Terms are lowercase runs of [A-Za-z0-9_], i.e. the pieces left by splitting on \W+.
+public final class IndexSegment {
+
+    private static final int MAGIC = 0x54584958;  // "TXIX"
+    private static final int VERSION = 5;
+    private static final int SKIP_INTERVAL = 64;
+    public static final int MAX_TERM_LENGTH = 64;  // Longer tokens (hashes, base64) are not indexed
+    public static final int NO_MORE_DOCS = Integer.MAX_VALUE;
+
+    // Document table
+    private final String[] names;
+    private final long[] sizes;
+    private final long[] lastModified;
+    private final int[] docLengths;      // Tokens per document, over-long ones included
+    private final int[] lineTableStart;  // lineTableStart[d]..lineTableStart[d + 1] in lineTables
+    private final byte[] lineTables;
+
+    // Term dictionary and postings
+    private final String[] terms;
+    private final int[] docFreqs;
+    private final int[] maxFreqs;
+    private final int[] postingsStart;  // postingsStart[t]..postingsStart[t + 1] in postings
+    private final byte[] postings;
+    private final int[] skipStart;      // skipStart[t]..skipStart[t + 1] in skipDocs / skipOffsets
+    private final int[] skipDocs;
+    private final int[] skipOffsets;    // Absolute positions in postings
+    private final int minDocLength;
+
+    private volatile Map<String, Integer> docIdsByName;  // Built on first use
+
+    private IndexSegment(String[] names, long[] sizes, long[] lastModified, int[] docLengths,
+                         int[] lineTableStart, byte[] lineTables,
+                         String[] terms, int[] docFreqs, int[] maxFreqs, int[] postingsStart, byte[] postings,
+                         int[] skipStart, int[] skipDocs, int[] skipOffsets) {
+        this.names = names;
+        this.sizes = sizes;
+        this.lastModified = lastModified;
+        this.docLengths = docLengths;
+        this.lineTableStart = lineTableStart;
+        this.lineTables = lineTables;
+        this.terms = terms;
+        this.docFreqs = docFreqs;
+        this.maxFreqs = maxFreqs;
+        this.postingsStart = postingsStart;
+        this.postings = postings;
+        this.skipStart = skipStart;
+        this.skipDocs = skipDocs;
+        this.skipOffsets = skipOffsets;
+        int min = Integer.MAX_VALUE;
+        for (int length : docLengths) {
+            min = Math.min(min, length);
+        }
+        this.minDocLength = names.length == 0 ? 0 : min;
+    }
+
+    public static IndexSegment empty() {
+        return new Builder().build();
+    }
+
+    public int docCount() {
+        return names.length;
+    }
+
+    public String name(int doc) {
+        return names[doc];
+    }
+
+    public long size(int doc) {
+        return sizes[doc];
+    }
+
+    public long lastModified(int doc) {
+        return lastModified[doc];
+    }
+
+    public int docLength(int doc) {
+        return docLengths[doc];
+    }
+
+    // Shortest document in the segment, in tokens
+    public int minDocLength() {
+        return minDocLength;
+    }
+
+    // Id of the document with this name, or -1
+    public int docId(String name) {
+        Map<String, Integer> ids = docIdsByName;
+        if (ids == null) {
+            ids = new HashMap<>(names.length * 2);
+            for (int doc = 0; doc < names.length; doc++) {
+                ids.put(names[doc], doc);
+            }
+            docIdsByName = ids;
+        }
+        Integer doc = ids.get(name);
+        return doc != null ? doc : -1;
+    }
+
+    public int termCount() {
+        return terms.length;
+    }
+
+    public String term(int ordinal) {
+        return terms[ordinal];
+    }
+
+    // Ordinal of the term, or -1 when no document contains it
+    public int termOrdinal(String term) {
+        int ordinal = Arrays.binarySearch(terms, term);
+        return ordinal >= 0 ? ordinal : -1;
+    }
+
+    public int docFreq(int ordinal) {
+        return docFreqs[ordinal];
+    }
+
+    // Highest number of occurrences of the term in any one document
+    public int maxFreq(int ordinal) {
+        return maxFreqs[ordinal];
+    }
+
+    public Postings postings(int ordinal) {
+        return new Postings(postingsStart[ordinal], postingsStart[ordinal + 1], skipStart[ordinal], skipStart[ordinal + 1]);
+    }
+
+    public long postingsBytes() {
+        return postings.length;
+    }
+
+    public LineTable lines(int doc) {
+        int[] position = {lineTableStart[doc]};
+        int count = readVarint(lineTables, position);
+        int[] charStarts = new int[count + 1];
+        long[] byteStarts = new long[count + 1];
+        for (int line = 1; line <= count; line++) {
+            charStarts[line] = charStarts[line - 1] + readVarint(lineTables, position);
+            byteStarts[line] = byteStarts[line - 1] + readVarint(lineTables, position);
+        }
+        return new LineTable(charStarts, byteStarts);
+    }
+
+    // Where each line of a document starts, in chars (for offsets) and in bytes (for reading the file)
+    public static final class LineTable {
+        private final int[] charStarts;
+        private final long[] byteStarts;
+
+        private LineTable(int[] charStarts, long[] byteStarts) {
+            this.charStarts = charStarts;
+            this.byteStarts = byteStarts;
+        }
+
+        public int lineCount() {
+            return charStarts.length;
+        }
+
+        // 1-based line containing the char offset
+        public int lineOf(int charOffset) {
+            int index = Arrays.binarySearch(charStarts, charOffset);
+            return index >= 0 ? index + 1 : -index - 1;
+        }
+
+        public int charStart(int line) {
+            return charStarts[line - 1];
+        }
+
+        public long byteStart(int line) {
+            return byteStarts[line - 1];
+        }
+
+        // Byte offset where the line ends (start of the next line, or -1 for the last line)
+        public long byteEnd(int line) {
+            return line < byteStarts.length ? byteStarts[line] : -1;
+        }
+    }
+
+    // Forward-only reader over one term's postings
+    public final class Postings {
+        private int position;
+        private final int end;
+        private int doc = -1;
+        private int freq;
+        private boolean decoded = true;
+        private int[] positions = new int[8];
+        private int[] offsets = new int[8];
+        private int nextSkip;         // First skip entry not yet passed
+        private final int skipEnd;
+
+        private Postings(int start, int end, int skipFrom, int skipTo) {
+            this.position = start;
+            this.end = end;
+            this.nextSkip = skipFrom;
+            this.skipEnd = skipTo;
+        }
+
+        // Next document containing the term, or NO_MORE_DOCS
+        public int nextDoc() {
+            if (!decoded) {
+                for (int i = 0; i < 2 * freq; i++) {
+                    readVarint();
+                }
+            }
+            if (position >= end) {
+                return doc = NO_MORE_DOCS;
+            }
+            doc += readVarint() + 1;
+            freq = readVarint();
+            decoded = false;
+            return doc;
+        }
+
+        // First document at or after target, or NO_MORE_DOCS. Whole blocks before target are
+        // skipped via the skip entries (binary search), so this is sublinear in the list length.
+        public int advance(int target) {
+            if (doc >= target) {
+                return doc;
+            }
+            int low = nextSkip;
+            int high = skipEnd - 1;
+            int last = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (skipDocs[mid] < target) {
+                    last = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            if (last >= 0) {
+                nextSkip = last + 1;
+                if (skipOffsets[last] > position) {
+                    // Land just after the block's last document, with nothing left to decode
+                    position = skipOffsets[last];
+                    doc = skipDocs[last];
+                    freq = 0;
+                    decoded = true;
+                }
+            }
+            int current = doc;
+            while (current < target) {
+                current = nextDoc();
+            }
+            return current;
+        }
+
+        public int docId() {
+            return doc;
+        }
+
+        public int freq() {
+            return freq;
+        }
+
+        // Token position of the i-th occurrence in the current document (ascending)
+        public int position(int i) {
+            decode();
+            return positions[i];
+        }
+
+        // Char offset of the i-th occurrence in the current document (ascending)
+        public int offset(int i) {
+            decode();
+            return offsets[i];
+        }
+
+        public int[] offsets() {
+            decode();
+            return Arrays.copyOf(offsets, freq);
+        }
+
+        private void decode() {
+            if (decoded) {
+                return;
+            }
+            if (positions.length < freq) {
+                positions = new int[Integer.highestOneBit(freq) << 1];
+                offsets = new int[positions.length];
+            }
+            int tokenPosition = 0;
+            int offset = 0;
+            for (int i = 0; i < freq; i++) {
+                tokenPosition += readVarint();
+                offset += readVarint();
+                positions[i] = tokenPosition;
+                offsets[i] = offset;
+            }
+            decoded = true;
+        }
+
+        private int readVarint() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = postings[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+
+    private static int readVarint(byte[] bytes, int[] position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = bytes[position[0]++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    public void writeTo(Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(names.length);
+            for (int doc = 0; doc < names.length; doc++) {
+                out.writeUTF(names[doc]);
+                out.writeLong(sizes[doc]);
+                out.writeLong(lastModified[doc]);
+                out.writeInt(docLengths[doc]);
+                out.writeInt(lineTableStart[doc + 1] - lineTableStart[doc]);
+            }
+            out.writeInt(lineTables.length);
+            out.write(lineTables);
+            out.writeInt(terms.length);
+            for (int t = 0; t < terms.length; t++) {
+                out.writeUTF(terms[t]);
+                out.writeInt(docFreqs[t]);
+                out.writeInt(maxFreqs[t]);
+                out.writeInt(postingsStart[t + 1] - postingsStart[t]);
+            }
+            out.writeInt(postings.length);
+            out.write(postings);
+            for (int t = 0; t < terms.length; t++) {
+                out.writeInt(skipStart[t + 1] - skipStart[t]);
+                for (int i = skipStart[t]; i < skipStart[t + 1]; i++) {
+                    out.writeInt(skipDocs[i]);
+                    out.writeInt(skipOffsets[i] - postingsStart[t]);
+                }
+            }
+        }
+    }
+
+    public static IndexSegment readFrom(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unsupported index format: " + path);
+            }
+            int docCount = in.readInt();
+            String[] names = new String[docCount];
+            long[] sizes = new long[docCount];
+            long[] lastModified = new long[docCount];
+            int[] docLengths = new int[docCount];
+            int[] lineTableStart = new int[docCount + 1];
+            for (int doc = 0; doc < docCount; doc++) {
+                names[doc] = in.readUTF();
+                sizes[doc] = in.readLong();
+                lastModified[doc] = in.readLong();
+                docLengths[doc] = in.readInt();
+                lineTableStart[doc + 1] = lineTableStart[doc] + in.readInt();
+            }
+            byte[] lineTables = new byte[in.readInt()];
+            in.readFully(lineTables);
+            int termCount = in.readInt();
+            String[] terms = new String[termCount];
+            int[] docFreqs = new int[termCount];
+            int[] maxFreqs = new int[termCount];
+            int[] postingsStart = new int[termCount + 1];
+            for (int t = 0; t < termCount; t++) {
+                terms[t] = in.readUTF();
+                docFreqs[t] = in.readInt();
+                maxFreqs[t] = in.readInt();
+                postingsStart[t + 1] = postingsStart[t] + in.readInt();
+            }
+            byte[] postings = new byte[in.readInt()];
+            in.readFully(postings);
+            int[] skipStart = new int[termCount + 1];
+            IntList skipDocs = new IntList();
+            IntList skipOffsets = new IntList();
+            for (int t = 0; t < termCount; t++) {
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    skipDocs.add(in.readInt());
+                    skipOffsets.add(postingsStart[t] + in.readInt());
+                }
+                skipStart[t + 1] = skipDocs.size;
+            }
+            return new IndexSegment(names, sizes, lastModified, docLengths, lineTableStart, lineTables,
+                    terms, docFreqs, maxFreqs, postingsStart, postings, skipStart,
+                    Arrays.copyOf(skipDocs.values, skipDocs.size), Arrays.copyOf(skipOffsets.values, skipOffsets.size));
+        }
+    }
+
+    // Calls the consumer with (lowercase term, char offset, position) for each token of the text.
+    // Tokens longer than MAX_TERM_LENGTH are skipped but still take up a position. Returns the number
+    // of positions used.
+    public static int tokenize(CharSequence text, TokenConsumer consumer) {
+        int length = text.length();
+        int position = 0;
+        int i = 0;
+        while (i < length) {
+            while (i < length && !isWordChar(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && isWordChar(text.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                if (i - start <= MAX_TERM_LENGTH) {
+                    consumer.accept(text.subSequence(start, i).toString().toLowerCase(), start, position);
+                }
+                position++;
+            }
+        }
+        return position;
+    }
+
+    public interface TokenConsumer {
+        void accept(String term, int offset, int position);
+    }
+
+    // Tokenizes a UTF-8 document ahead of Builder.addDocument; safe to call from several threads at once
+    public static AnalyzedDocument analyze(byte[] utf8) {
+        String content = new String(utf8, StandardCharsets.UTF_8);
+        Map<String, IntList> occurrencesByTerm = new HashMap<>();
+        int tokens = tokenize(content, (term, offset, position) -> {
+            IntList occurrences = occurrencesByTerm.computeIfAbsent(term, k -> new IntList());
+            occurrences.add(position);
+            occurrences.add(offset);
+        });
+
+        // A '\n' byte is never part of a multi-byte character, so both scans see the same lines
+        ByteSink lines = new ByteSink();
+        int lineCount = 0;
+        for (int i = 0; i < content.length(); i++) {
+            if (content.charAt(i) == '\n') {
+                lineCount++;
+            }
+        }
+        lines.writeVarint(lineCount);
+        int previousChar = 0;
+        int previousByte = 0;
+        int bytePosition = 0;
+        for (int i = 0; i < content.length(); i++) {
+            if (content.charAt(i) == '\n') {
+                while (utf8[bytePosition] != '\n') {
+                    bytePosition++;
+                }
+                bytePosition++;
+                lines.writeVarint(i + 1 - previousChar);
+                lines.writeVarint(bytePosition - previousByte);
+                previousChar = i + 1;
+                previousByte = bytePosition;
+            }
+        }
+        return new AnalyzedDocument(occurrencesByTerm, tokens, Arrays.copyOf(lines.bytes, lines.length));
+    }
+
+    // One document's (position, char offset) pairs grouped by term, plus its line table
+    public static final class AnalyzedDocument {
+        private final Map<String, IntList> occurrencesByTerm;
+        private final int length;
+        private final byte[] lineTable;
+
+        private AnalyzedDocument(Map<String, IntList> occurrencesByTerm, int length, byte[] lineTable) {
+            this.occurrencesByTerm = occurrencesByTerm;
+            this.length = length;
+            this.lineTable = lineTable;
+        }
+    }
+
+    // Same characters as \w
+    public static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    // Builds a segment from documents added in order; document ids are assigned 0, 1, 2, ...
+    public static final class Builder {
+        private final List<String> names = new ArrayList<>();
+        private long[] sizes = new long[16];
+        private long[] lastModified = new long[16];
+        private int[] docLengths = new int[16];
+        private int[] lineTableStart = new int[17];
+        private final ByteSink lineTables = new ByteSink();
+        private final Map<String, TermWriter> termWriters = new HashMap<>();
+
+        public int addDocument(String name, long size, long modified, AnalyzedDocument analyzed) {
+            int doc = newDocument(name, size, modified, analyzed.length, analyzed.lineTable, 0, analyzed.lineTable.length);
+            for (Map.Entry<String, IntList> entry : analyzed.occurrencesByTerm.entrySet()) {
+                IntList occurrences = entry.getValue();
+                termWriters.computeIfAbsent(entry.getKey(), k -> new TermWriter()).add(doc, occurrences.values, occurrences.size / 2);
+            }
+            return doc;
+        }
+
+        private int newDocument(String name, long size, long modified, int length, byte[] lineTable, int from, int to) {
+            int doc = names.size();
+            if (doc == sizes.length) {
+                sizes = Arrays.copyOf(sizes, doc * 2);
+                lastModified = Arrays.copyOf(lastModified, doc * 2);
+                docLengths = Arrays.copyOf(docLengths, doc * 2);
+                lineTableStart = Arrays.copyOf(lineTableStart, doc * 2 + 1);
+            }
+            names.add(name);
+            sizes[doc] = size;
+            lastModified[doc] = modified;
+            docLengths[doc] = length;
+            lineTables.write(lineTable, from, to - from);
+            lineTableStart[doc + 1] = lineTables.length;
+            return doc;
+        }
+
+        // Copies the documents of another segment that are not marked in deleted, postings included,
+        // without re-reading any text. Returns the new id of each source document (-1 when dropped).
+        public int[] addSegment(IndexSegment source, BitSet deleted) {
+            int[] docMap = new int[source.docCount()];
+            for (int doc = 0; doc < docMap.length; doc++) {
+                if (deleted.get(doc)) {
+                    docMap[doc] = -1;
+                    continue;
+                }
+                docMap[doc] = newDocument(source.name(doc), source.size(doc), source.lastModified(doc), source.docLength(doc),
+                        source.lineTables, source.lineTableStart[doc], source.lineTableStart[doc + 1]);
+            }
+            int[] occurrences = new int[16];
+            for (int t = 0; t < source.termCount(); t++) {
+                TermWriter writer = null;
+                Postings postings = source.postings(t);
+                for (int doc = postings.nextDoc(); doc != NO_MORE_DOCS; doc = postings.nextDoc()) {
+                    if (docMap[doc] < 0) {
+                        continue;
+                    }
+                    if (writer == null) {
+                        writer = termWriters.computeIfAbsent(source.term(t), k -> new TermWriter());
+                    }
+                    int freq = postings.freq();
+                    if (occurrences.length < 2 * freq) {
+                        occurrences = new int[Integer.highestOneBit(2 * freq) << 1];
+                    }
+                    for (int i = 0; i < freq; i++) {
+                        occurrences[2 * i] = postings.position(i);
+                        occurrences[2 * i + 1] = postings.offset(i);
+                    }
+                    writer.add(docMap[doc], occurrences, freq);
+                }
+            }
+            return docMap;
+        }
+
+        public IndexSegment build() {
+            String[] terms = termWriters.keySet().toArray(new String[0]);
+            Arrays.sort(terms);
+            int[] docFreqs = new int[terms.length];
+            int[] maxFreqs = new int[terms.length];
+            int[] postingsStart = new int[terms.length + 1];
+            long total = 0;
+            for (int t = 0; t < terms.length; t++) {
+                TermWriter writer = termWriters.get(terms[t]);
+                docFreqs[t] = writer.docFreq;
+                maxFreqs[t] = writer.maxFreq;
+                total += writer.length;
+                if (total > Integer.MAX_VALUE - 16) {
+                    throw new IllegalStateException("Index segment exceeds 2 GB of postings");
+                }
+                postingsStart[t + 1] = (int) total;
+            }
+            byte[] postings = new byte[(int) total];
+            int[] skipStart = new int[terms.length + 1];
+            IntList skipDocs = new IntList();
+            IntList skipOffsets = new IntList();
+            for (int t = 0; t < terms.length; t++) {
+                TermWriter writer = termWriters.get(terms[t]);
+                System.arraycopy(writer.bytes, 0, postings, postingsStart[t], writer.length);
+                for (int i = 0; i < writer.skipDocs.size; i++) {
+                    skipDocs.add(writer.skipDocs.values[i]);
+                    skipOffsets.add(postingsStart[t] + writer.skipOffsets.values[i]);
+                }
+                skipStart[t + 1] = skipDocs.size;
+            }
+            int docCount = names.size();
+            return new IndexSegment(names.toArray(new String[0]), Arrays.copyOf(sizes, docCount),
+                    Arrays.copyOf(lastModified, docCount), Arrays.copyOf(docLengths, docCount),
+                    Arrays.copyOf(lineTableStart, docCount + 1), Arrays.copyOf(lineTables.bytes, lineTables.length),
+                    terms, docFreqs, maxFreqs, postingsStart, postings, skipStart,
+                    Arrays.copyOf(skipDocs.values, skipDocs.size), Arrays.copyOf(skipOffsets.values, skipOffsets.size));
+        }
+    }
+
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+
+    // Growable byte buffer with varint writes
+    private static class ByteSink {
+        byte[] bytes = new byte[16];
+        int length;
 
-        // Compare OS
-        if (!phone1.getOs().equals(phone2.getOs())) {
-            comparisonBuilder.append("Different OS: ").append(phone1.getOs()).append(" vs ").append(phone2.getOs()).append(".\n");
-        } else {
-            comparisonBuilder.append("Same OS: ").append(phone1.getOs()).append(".\n");
+        void writeVarint(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
         }
 
-        // Compare RAM
-        if (!phone1.getRam().equals(phone2.getRam())) {
-            comparisonBuilder.append("Different RAM: ").append(phone1.getRam()).append(" vs ").append(phone2.getRam()).append(".\n");
-        } else {
-            comparisonBuilder.append("Same RAM: ").append(phone1.getRam()).append(".\n");
+        void write(byte[] source, int from, int count) {
+            ensure(count);
+            System.arraycopy(source, from, bytes, length, count);
+            length += count;
         }
 
-        // Compare ROM
-        if (!phone1.getRom().equals(phone2.getRom())) {
-            comparisonBuilder.append("Different ROM: ").append(phone1.getRom()).append(" vs ").append(phone2.getRom()).append(".\n");
-        } else {
-            comparisonBuilder.append("Same ROM: ").append(phone1.getRom()).append(".\n");
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
         }
+    }
 
-        // Compare 5G capability
-        if (!phone1.getIs5G().equals(phone2.getIs5G())) {
-            comparisonBuilder.append("5G support differs.\n");
-        } else {
-            comparisonBuilder.append("Both support 5G.\n");
+    // Growing postings buffer for one term
+    private static final class TermWriter extends ByteSink {
+        int lastDoc = -1;
+        int docFreq;
+        int maxFreq;
+        final IntList skipDocs = new IntList();
+        final IntList skipOffsets = new IntList();  // Relative to this term's first byte
+
+        // occurrences holds count (position, char offset) pairs, both ascending
+        void add(int doc, int[] occurrences, int count) {
+            writeVarint(doc - lastDoc - 1);
+            writeVarint(count);
+            int previousPosition = 0;
+            int previousOffset = 0;
+            for (int i = 0; i < count; i++) {
+                writeVarint(occurrences[2 * i] - previousPosition);
+                writeVarint(occurrences[2 * i + 1] - previousOffset);
+                previousPosition = occurrences[2 * i];
+                previousOffset = occurrences[2 * i + 1];
+            }
+            lastDoc = doc;
+            docFreq++;
+            maxFreq = Math.max(maxFreq, count);
+            if (docFreq % SKIP_INTERVAL == 0) {
+                skipDocs.add(doc);
+                skipOffsets.add(length);
+            }
         }
+    }
+}
 
-        // Compare Dual SIM capability
-        if (!phone1.getIsDualSim().equals(phone2.getIsDualSim())) {
-            comparisonBuilder.append("Dual SIM support differs.\n");
-        } else {
-            comparisonBuilder.append("Both support Dual SIM.\n");
+
+
+//BooleanQuery.java:----------------------------------------------------------------------------------------------------
+package com.example.phone_comparison_backend.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Boolean query over the words of an IndexSegment, e.g. "5g AND samsung NOT refurbished".
+// Operators are the upper-case words AND, OR and NOT; adjacent words are implicitly ANDed, NOT binds
+// tightest, then AND, then OR, and parentheses group. A word that tokenizes into several terms
+// ("galaxy-s21") requires all of them. Conjunctions are evaluated per segment by leapfrogging over
+// the clauses in ascending document-frequency order, so the rarest list drives advance() calls on
+// the others and the skip entries keep those jumps sublinear.
+public final class BooleanQuery {
+
+    private final Node root;
+    private final List<String> terms;
+
+    private BooleanQuery(Node root, List<String> terms) {
+        this.root = root;
+        this.terms = terms;
+    }
+
+    // Throws IllegalArgumentException when the query is malformed or has no words
+    public static BooleanQuery parse(String query) {
+        Parser parser = new Parser(query);
+        Node root = parser.parseOr();
+        if (parser.index < parser.tokens.size()) {
+            throw new IllegalArgumentException("Unexpected '" + parser.tokens.get(parser.index) + "' in query");
+        }
+        if (parser.terms.isEmpty()) {
+            throw new IllegalArgumentException("Query has no words to search for");
         }
+        return new BooleanQuery(root, parser.terms);
+    }
 
-        // Compare Bluetooth version
-        if (!phone1.getBluetoothVersion().equals(phone2.getBluetoothVersion())) {
-            comparisonBuilder.append("Different Bluetooth Version: ").append(phone1.getBluetoothVersion())
-                    .append(" vs ").append(phone2.getBluetoothVersion()).append(".\n");
-        } else {
-            comparisonBuilder.append("Same Bluetooth Version: ").append(phone1.getBluetoothVersion()).append(".\n");
+    // Distinct terms mentioned anywhere in the query, negated ones included
+    public List<String> terms() {
+        return terms;
+    }
+
+    // Matching documents of the segment in ascending order; deleted documents are not filtered here
+    public DocIterator iterator(IndexSegment segment) {
+        return root.iterator(segment);
+    }
+
+    // ---------------------------------------------------------------- parsing
+
+    private static final class Parser {
+        final List<String> tokens = new ArrayList<>();
+        final List<String> terms = new ArrayList<>();
+        int index;
+
+        Parser(String query) {
+            StringBuilder word = new StringBuilder();
+            for (int i = 0; i < query.length(); i++) {
+                char c = query.charAt(i);
+                if (Character.isWhitespace(c) || c == '(' || c == ')') {
+                    if (word.length() > 0) {
+                        tokens.add(word.toString());
+                        word.setLength(0);
+                    }
+                    if (c == '(' || c == ')') {
+                        tokens.add(String.valueOf(c));
+                    }
+                } else {
+                    word.append(c);
+                }
+            }
+            if (word.length() > 0) {
+                tokens.add(word.toString());
+            }
         }
 
-        // Compare Fast Charging capability
-        if (!phone1.getHasFastCharging().equals(phone2.getHasFastCharging())) {
-            comparisonBuilder.append("Fast Charging support differs.\n");
-        } else {
-            comparisonBuilder.append("Both support Fast Charging.\n");
+        Node parseOr() {
+            List<Node> clauses = new ArrayList<>();
+            clauses.add(parseAnd());
+            while (peek("OR")) {
+                index++;
+                clauses.add(parseAnd());
+            }
+            return clauses.size() == 1 ? clauses.get(0) : new OrNode(clauses);
         }
 
-        return new PhoneComparison(phone1, phone2, comparisonBuilder.toString());
+        Node parseAnd() {
+            List<Node> clauses = new ArrayList<>();
+            clauses.add(parseUnary());
+            while (index < tokens.size() && !peek(")") && !peek("OR")) {
+                if (peek("AND")) {
+                    index++;
+                }
+                clauses.add(parseUnary());
+            }
+            return clauses.size() == 1 ? clauses.get(0) : AndNode.of(clauses);
+        }
+
+        Node parseUnary() {
+            if (index >= tokens.size()) {
+                throw new IllegalArgumentException("Query ends where a word was expected");
+            }
+            String token = tokens.get(index++);
+            switch (token) {
+                case "NOT":
+                    return new NotNode(parseUnary());
+                case "(": {
+                    Node inner = parseOr();
+                    if (!peek(")")) {
+                        throw new IllegalArgumentException("Missing ')' in query");
+                    }
+                    index++;
+                    return inner;
+                }
+                case ")":
+                case "AND":
+                case "OR":
+                    throw new IllegalArgumentException("Unexpected '" + token + "' in query");
+                default:
+                    return word(token);
+            }
+        }
+
+        private Node word(String token) {
+            List<Node> parts = new ArrayList<>();
+            IndexSegment.tokenize(token, (term, offset, position) -> {
+                parts.add(new TermNode(term));
+                if (!terms.contains(term)) {
+                    terms.add(term);
+                }
+            });
+            if (parts.isEmpty()) {
+                throw new IllegalArgumentException("'" + token + "' contains no searchable word");
+            }
+            return parts.size() == 1 ? parts.get(0) : AndNode.of(parts);
+        }
+
+        private boolean peek(String token) {
+            return index < tokens.size() && tokens.get(index).equals(token);
+        }
     }
 
-    public Map<String, Object> comparePhones(Long phone1Id, Long phone2Id) {
-    Map<String, Object> comparisonData = new HashMap<>();
+    private interface Node {
+        DocIterator iterator(IndexSegment segment);
+    }
 
-    Phone phone1 = phoneRepository.findById(phone1Id).orElse(null);
-    Phone phone2 = phoneRepository.findById(phone2Id).orElse(null);
+    private static final class TermNode implements Node {
+        final String term;
 
-    if (phone1 != null && phone2 != null) {
-        comparisonData.put("Model", Map.of("phone1", phone1.getModel(), "phone2", phone2.getModel()));
-        comparisonData.put("Price", Map.of("phone1", phone1.getPrice(), "phone2", phone2.getPrice()));
-        comparisonData.put("Company", Map.of("phone1", phone1.getCompany(), "phone2", phone2.getCompany()));
-        comparisonData.put("OS", Map.of("phone1", phone1.getOs(), "phone2", phone2.getOs()));
-        comparisonData.put("RAM", Map.of("phone1", phone1.getRam(), "phone2", phone2.getRam()));
-        comparisonData.put("ROM", Map.of("phone1", phone1.getRom(), "phone2", phone2.getRom()));
-        comparisonData.put("5G Support", Map.of("phone1", phone1.getIs5G(), "phone2", phone2.getIs5G()));
-        comparisonData.put("Dual SIM Support", Map.of("phone1", phone1.getIsDualSim(), "phone2", phone2.getIsDualSim()));
-        comparisonData.put("Bluetooth Version", Map.of("phone1", phone1.getBluetoothVersion(), "phone2", phone2.getBluetoothVersion()));
-        comparisonData.put("Fast Charging Support", Map.of("phone1", phone1.getHasFastCharging(), "phone2", phone2.getHasFastCharging()));
-        // Add more features as necessary
+        TermNode(String term) {
+            this.term = term;
+        }
+
+        @Override
+        public DocIterator iterator(IndexSegment segment) {
+            int ordinal = segment.termOrdinal(term);
+            return ordinal < 0 ? new EmptyIterator() : new TermIterator(segment.postings(ordinal), segment.docFreq(ordinal));
+        }
     }
 
-    return comparisonData;
-}
+    // NOT clauses of a conjunction become exclusions; a conjunction of only exclusions matches every
+    // document that has none of them
+    private static final class AndNode implements Node {
+        final List<Node> required;
+        final List<Node> excluded;
 
+        private AndNode(List<Node> required, List<Node> excluded) {
+            this.required = required;
+            this.excluded = excluded;
+        }
 
-    private Float parsePrice(String rawPrice) {
-        if (rawPrice == null || rawPrice.isEmpty()) return 0.0f;
-        String sanitizedPrice = rawPrice.replaceAll("[^\\d.]", "");
-        if (sanitizedPrice.indexOf('.') != sanitizedPrice.lastIndexOf('.')) {
-            System.err.println("Invalid price format with multiple decimal points: " + rawPrice);
-            return 0.0f;
+        static AndNode of(List<Node> clauses) {
+            List<Node> required = new ArrayList<>();
+            List<Node> excluded = new ArrayList<>();
+            for (Node clause : clauses) {
+                if (clause instanceof NotNode) {
+                    excluded.add(((NotNode) clause).negated);
+                } else {
+                    required.add(clause);
+                }
+            }
+            return new AndNode(required, excluded);
         }
-        try {
-            return sanitizedPrice.isEmpty() ? 0.0f : Float.parseFloat(sanitizedPrice);
-        } catch (NumberFormatException e) {
-            System.err.println("Invalid price format: " + rawPrice);
-            return 0.0f;
+
+        @Override
+        public DocIterator iterator(IndexSegment segment) {
+            List<DocIterator> iterators = new ArrayList<>();
+            for (Node clause : required) {
+                DocIterator iterator = clause.iterator(segment);
+                if (iterator.cost() == 0) {
+                    return new EmptyIterator();
+                }
+                iterators.add(iterator);
+            }
+            DocIterator conjunction;
+            if (iterators.isEmpty()) {
+                conjunction = new AllDocsIterator(segment.docCount());
+            } else if (iterators.size() == 1) {
+                conjunction = iterators.get(0);
+            } else {
+                iterators.sort(Comparator.comparingLong(DocIterator::cost));
+                conjunction = new ConjunctionIterator(iterators);
+            }
+            if (excluded.isEmpty()) {
+                return conjunction;
+            }
+            List<DocIterator> exclusions = new ArrayList<>();
+            for (Node clause : excluded) {
+                DocIterator iterator = clause.iterator(segment);
+                if (iterator.cost() > 0) {
+                    exclusions.add(iterator);
+                }
+            }
+            return exclusions.isEmpty() ? conjunction : new ExclusionIterator(conjunction, exclusions);
         }
     }
 
-    public List<Phone> getAllPhones() {
-        return phoneRepository.findAll();
+    private static final class OrNode implements Node {
+        final List<Node> clauses;
+
+        OrNode(List<Node> clauses) {
+            this.clauses = clauses;
+        }
+
+        @Override
+        public DocIterator iterator(IndexSegment segment) {
+            List<DocIterator> iterators = new ArrayList<>();
+            for (Node clause : clauses) {
+                DocIterator iterator = clause.iterator(segment);
+                if (iterator.cost() > 0) {
+                    iterators.add(iterator);
+                }
+            }
+            if (iterators.isEmpty()) {
+                return new EmptyIterator();
+            }
+            return iterators.size() == 1 ? iterators.get(0) : new DisjunctionIterator(iterators);
+        }
     }
 
-    public List<Phone> searchPhones(String model, String company) {
-        if (model != null && !model.isEmpty()) {
-            trackSearchTerm(model);
+    // A NOT outside a conjunction ("a OR NOT b", or a bare "NOT b") is relative to every document
+    private static final class NotNode implements Node {
+        final Node negated;
+
+        NotNode(Node negated) {
+            this.negated = negated;
         }
-        if (company != null && !company.isEmpty()) {
-            trackSearchTerm(company);
+
+        @Override
+        public DocIterator iterator(IndexSegment segment) {
+            return new AndNode(List.of(), List.of(negated)).iterator(segment);
         }
-        List<Phone> phones = new ArrayList<>();
-        if (model != null && company != null) {
-            phones = phoneRepository.findByModelContainingAndCompany(model, company);
-        } else if (model != null) {
-            phones = phoneRepository.findByModelContaining(model);
-        } else if (company != null) {
-            phones = phoneRepository.findByCompany(company);
-        } else {
-            phones = phoneRepository.findAll();
+    }
+
+    // ---------------------------------------------------------------- iteration
+
+    // Ascending document ids, starting before the first document (docId() == -1)
+    public abstract static class DocIterator {
+        protected int doc = -1;
+
+        public int docId() {
+            return doc;
         }
-        return phones;
+
+        // Next matching document, or IndexSegment.NO_MORE_DOCS
+        public abstract int nextDoc();
+
+        // First matching document at or after target, or IndexSegment.NO_MORE_DOCS
+        public abstract int advance(int target);
+
+        // Upper bound on the number of matches, used to order conjunction clauses
+        public abstract long cost();
     }
 
-    public List<Phone> sortPhonesByPrice(List<Phone> phones, boolean ascending) {
-        quickSort(phones, 0, phones.size() - 1, ascending, "price");
-        return phones;
+    private static final class EmptyIterator extends DocIterator {
+        @Override
+        public int nextDoc() {
+            return doc = IndexSegment.NO_MORE_DOCS;
+        }
+
+        @Override
+        public int advance(int target) {
+            return doc = IndexSegment.NO_MORE_DOCS;
+        }
+
+        @Override
+        public long cost() {
+            return 0;
+        }
     }
 
-    public List<Phone> sortPhonesByModel(List<Phone> phones, boolean ascending) {
-        quickSort(phones, 0, phones.size() - 1, ascending, "model");
-        return phones;
+    private static final class AllDocsIterator extends DocIterator {
+        private final int docCount;
+
+        AllDocsIterator(int docCount) {
+            this.docCount = docCount;
+        }
+
+        @Override
+        public int nextDoc() {
+            return advance(doc + 1);
+        }
+
+        @Override
+        public int advance(int target) {
+            if (doc >= target) {
+                return doc;
+            }
+            return doc = target < docCount ? target : IndexSegment.NO_MORE_DOCS;
+        }
+
+        @Override
+        public long cost() {
+            return docCount;
+        }
     }
 
-    private void quickSort(List<Phone> phones, int low, int high, boolean ascending, String sortBy) {
-        if (low < high) {
-            int pivotIndex = partition(phones, low, high, ascending, sortBy);
-            quickSort(phones, low, pivotIndex - 1, ascending, sortBy);
-            quickSort(phones, pivotIndex + 1, high, ascending, sortBy);
+    private static final class TermIterator extends DocIterator {
+        private final IndexSegment.Postings postings;
+        private final int docFreq;
+
+        TermIterator(IndexSegment.Postings postings, int docFreq) {
+            this.postings = postings;
+            this.docFreq = docFreq;
+        }
+
+        @Override
+        public int nextDoc() {
+            return doc = postings.nextDoc();
+        }
+
+        @Override
+        public int advance(int target) {
+            return doc = postings.advance(target);
+        }
+
+        @Override
+        public long cost() {
+            return docFreq;
         }
     }
 
-    private int partition(List<Phone> phones, int low, int high, boolean ascending, String sortBy) {
-        Phone pivot = phones.get(high);
-        int i = low - 1;
-        for (int j = low; j < high; j++) {
-            boolean condition = false;
-            if ("price".equalsIgnoreCase(sortBy)) {
-                condition = ascending ? phones.get(j).getPrice() < pivot.getPrice() : phones.get(j).getPrice() > pivot.getPrice();
+    // Leapfrog intersection; iterators are sorted by ascending cost, so the first one leads
+    private static final class ConjunctionIterator extends DocIterator {
+        private final DocIterator[] iterators;
+
+        ConjunctionIterator(List<DocIterator> iterators) {
+            this.iterators = iterators.toArray(new DocIterator[0]);
+        }
+
+        @Override
+        public int nextDoc() {
+            return doc = align(iterators[0].nextDoc());
+        }
+
+        @Override
+        public int advance(int target) {
+            if (doc >= target) {
+                return doc;
             }
-            if ("model".equalsIgnoreCase(sortBy)) {
-                condition = ascending ? phones.get(j).getModel().compareTo(pivot.getModel()) < 0 : phones.get(j).getModel().compareTo(pivot.getModel()) > 0;
+            return doc = align(iterators[0].advance(target));
+        }
+
+        private int align(int candidate) {
+            int i = 1;
+            while (candidate != IndexSegment.NO_MORE_DOCS && i < iterators.length) {
+                int found = iterators[i].advance(candidate);
+                if (found == candidate) {
+                    i++;
+                } else {
+                    candidate = iterators[0].advance(found);
+                    i = 1;
+                }
             }
-            if (condition) {
-                i++;
-                Phone temp = phones.get(i);
-                phones.set(i, phones.get(j));
-                phones.set(j, temp);
+            return candidate;
+        }
+
+        @Override
+        public long cost() {
+            return iterators[0].cost();
+        }
+    }
+
+    private static final class ExclusionIterator extends DocIterator {
+        private final DocIterator required;
+        private final List<DocIterator> exclusions;
+
+        ExclusionIterator(DocIterator required, List<DocIterator> exclusions) {
+            this.required = required;
+            this.exclusions = exclusions;
+        }
+
+        @Override
+        public int nextDoc() {
+            return doc = skipExcluded(required.nextDoc());
+        }
+
+        @Override
+        public int advance(int target) {
+            if (doc >= target) {
+                return doc;
+            }
+            return doc = skipExcluded(required.advance(target));
+        }
+
+        private int skipExcluded(int candidate) {
+            while (candidate != IndexSegment.NO_MORE_DOCS && isExcluded(candidate)) {
+                candidate = required.nextDoc();
+            }
+            return candidate;
+        }
+
+        private boolean isExcluded(int candidate) {
+            for (DocIterator exclusion : exclusions) {
+                if (exclusion.advance(candidate) == candidate) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public long cost() {
+            return required.cost();
+        }
+    }
+
+    // Union of a handful of clauses; the current document is the smallest head
+    private static final class DisjunctionIterator extends DocIterator {
+        private final DocIterator[] iterators;
+
+        DisjunctionIterator(List<DocIterator> iterators) {
+            this.iterators = iterators.toArray(new DocIterator[0]);
+        }
+
+        @Override
+        public int nextDoc() {
+            return advance(doc + 1);
+        }
+
+        @Override
+        public int advance(int target) {
+            if (doc >= target) {
+                return doc;
             }
+            int min = IndexSegment.NO_MORE_DOCS;
+            for (DocIterator iterator : iterators) {
+                min = Math.min(min, iterator.advance(target));
+            }
+            return doc = min;
+        }
+
+        @Override
+        public long cost() {
+            long sum = 0;
+            for (DocIterator iterator : iterators) {
+                sum += iterator.cost();
+            }
+            return sum;
+        }
+    }
+}
+
+
+
+//MappedWordSearch.java:----------------------------------------------------------------------------------------------------
+package com.example.phone_comparison_backend.util;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.LongPredicate;
+
+// Case-insensitive whole-word search straight over the bytes of a file. The file is memory-mapped in
+// windows, so the heap cost does not depend on the file size. Each window also maps the byte before it
+// and the pattern length after it, so matches across window edges and their boundaries are seen exactly once.
+// Case folding covers ASCII only; bytes of multi-byte UTF-8 characters compare exactly and count as
+// word characters for the boundary check, matching \b for letters. Offsets are byte offsets.
+public final class MappedWordSearch {
+
+    private static final long WINDOW_SIZE = 64L << 20;  // 64 MB of address space per mapping
+    private static final int INTERRUPT_CHECK_BYTES = 1 << 20;  // How often the scan looks for an interrupt
+
+    private MappedWordSearch() {
+    }
+
+    // Calls onMatch with the byte offset of each match, stopping after maxMatches, when onMatch returns
+    // false or when the thread is interrupted (reads from a mapping are not interruptible, so the scan
+    // checks every INTERRUPT_CHECK_BYTES); returns the number of matches accepted
+    public static long forEachMatch(Path path, String word, long maxMatches, LongPredicate onMatch) throws IOException {
+        return forEachMatch(path, word, maxMatches, onMatch, WINDOW_SIZE);
+    }
+
+    private static long forEachMatch(Path path, String word, long maxMatches, LongPredicate onMatch,
+                                     long windowSize) throws IOException {
+        byte[] pattern = word.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+        int m = pattern.length;
+        if (m == 0 || maxMatches <= 0) {
+            return 0;
+        }
+        // Whole-word rule of \b: a boundary sits between a word and a non-word character
+        boolean wordStart = isWordByte(pattern[0]);
+        boolean wordEnd = isWordByte(pattern[m - 1]);
+
+        // Horspool shift table over folded bytes
+        int[] shift = new int[256];
+        Arrays.fill(shift, m);
+        for (int j = 0; j < m - 1; j++) {
+            shift[pattern[j] & 0xFF] = m - 1 - j;
         }
-        Phone temp = phones.get(i + 1);
-        phones.set(i + 1, phones.get(high));
-        phones.set(high, temp);
-        return i + 1;
-    }
 
-    private void trackSearchTerm(String term) {
-        Optional<SearchTerm> existingTerm = searchTermRepository.findByTerm(term);
-        if (existingTerm.isPresent()) {
-            SearchTerm searchTerm = existingTerm.get();
-            searchTerm.setFrequency(searchTerm.getFrequency() + 1);
-            searchTermRepository.save(searchTerm);
-        } else {
-            searchTermRepository.save(new SearchTerm(term, 1));
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long start = 0; start + m <= size; start += windowSize) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return count;
+                }
+                long mapFrom = Math.max(0, start - 1);
+                long mapTo = Math.min(size, start + windowSize + m);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, mapFrom, mapTo - mapFrom);
+                int limit = buffer.limit();
+                int lastStart = (int) (Math.min(start + windowSize - 1, size - m) - mapFrom);
+
+                int i = (int) (start - mapFrom);
+                int nextCheck = i + INTERRUPT_CHECK_BYTES;
+                while (i <= lastStart) {
+                    if (i >= nextCheck) {
+                        if (Thread.currentThread().isInterrupted()) {
+                            return count;
+                        }
+                        nextCheck = i + INTERRUPT_CHECK_BYTES;
+                    }
+                    int j = m - 1;
+                    while (j >= 0 && fold(buffer.get(i + j)) == pattern[j]) {
+                        j--;
+                    }
+                    if (j < 0) {
+                        boolean before = i > 0 && isWordByte(buffer.get(i - 1));
+                        boolean after = i + m < limit && isWordByte(buffer.get(i + m));
+                        if (before != wordStart && after != wordEnd) {
+                            if (!onMatch.test(mapFrom + i)) {
+                                return count;
+                            }
+                            if (++count >= maxMatches) {
+                                return count;
+                            }
+                            i += m;  // Matches never overlap, as with Matcher.find()
+                            continue;
+                        }
+                    }
+                    i += shift[fold(buffer.get(i + m - 1)) & 0xFF];
+                }
+            }
         }
+        return count;
     }
 
-    public List<SearchTerm> getSearchStatistics() {
-        return searchTermRepository.findAll();
+    private static byte fold(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + 32) : b;
     }
 
-    public void initializeSpellCheck() {
-        spellCheckService.loadVocabulary();
+    private static boolean isWordByte(byte b) {
+        return b < 0 || (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9') || b == '_';
     }
+}
 
-    public List<String> getWordCompletions(String prefix) {
-        return wordCompletion.findSuggestions(prefix.toLowerCase());
-    }
 
-    public int getDatabaseWordCount(String searchTerm) {
-        List<Phone> allPhones = phoneRepository.findAll();
-        int totalCount = 0;
-        for (Phone phone : allPhones) {
-            totalCount += KMPAlgorithm.countOccurrences(phone.getModel().toLowerCase(), searchTerm.toLowerCase());
-            totalCount += KMPAlgorithm.countOccurrences(phone.getCompany().toLowerCase(), searchTerm.toLowerCase());
-        }
-        return totalCount;
-    }
 
-    public List<String> getPhoneModelsByPrefix(String prefix) {
-        System.out.println("Received request to fetch phone models with prefix: " + prefix);
-        if (prefix == null || prefix.trim().isEmpty()) {
-            System.out.println("Prefix is null or empty. Returning empty list.");
-            return List.of();
+//AhoCorasick.java:----------------------------------------------------------------------------------------------------
+package com.example.phone_comparison_backend.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Multi-pattern matcher: a trie of the patterns plus failure links, so a single left-to-right pass over
+// a text finds every occurrence of every pattern (overlapping ones included, as KMPAlgorithm counts
+// them) in time linear in the text. The automaton is immutable once built and can be shared between
+// threads; each pass accumulates into its own Counter.
+public final class AhoCorasick {
+    private static final int ASCII = 128;
+
+    private final List<String> patterns;
+    private final int[] terminal;     // terminal[p] = state reached after reading pattern p
+    private final char[][] labels;    // Sorted outgoing labels per state
+    private final int[][] targets;    // targets[s][i] = child of s along labels[s][i]
+    private final int[] fail;         // Longest proper suffix of the state's string that is also a state
+    private final int[] order;        // States in breadth-first order (by depth)
+    private final int[] rootAscii;    // Root transitions for ASCII chars, 0 = stay at the root
+
+    // Throws IllegalArgumentException on an empty pattern
+    public AhoCorasick(Collection<String> patterns) {
+        this.patterns = List.copyOf(patterns);
+        this.terminal = new int[this.patterns.size()];
+
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        for (int p = 0; p < this.patterns.size(); p++) {
+            String pattern = this.patterns.get(p);
+            if (pattern.isEmpty()) {
+                throw new IllegalArgumentException("Patterns must not be empty");
+            }
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                Integer next = trie.get(state).get(pattern.charAt(i));
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new TreeMap<>());
+                    trie.get(state).put(pattern.charAt(i), next);
+                }
+                state = next;
+            }
+            terminal[p] = state;
+        }
+
+        int stateCount = trie.size();
+        labels = new char[stateCount][];
+        targets = new int[stateCount][];
+        for (int s = 0; s < stateCount; s++) {
+            TreeMap<Character, Integer> children = trie.get(s);
+            labels[s] = new char[children.size()];
+            targets[s] = new int[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> child : children.entrySet()) {
+                labels[s][i] = child.getKey();
+                targets[s][i] = child.getValue();
+                i++;
+            }
         }
-        List<String> models = phoneRepository.findPhoneModelsByPrefix(prefix);
-        System.out.println("Fetched phone models: " + models);
-        if (models.isEmpty()) {
-            System.out.println("No phone models found with the prefix: " + prefix);
+        rootAscii = new int[ASCII];
+        for (int i = 0; i < labels[0].length; i++) {
+            if (labels[0][i] < ASCII) {
+                rootAscii[labels[0][i]] = targets[0][i];
+            }
         }
-        for (String model : models) {
-            System.out.println("Inserting model into AVL tree: " + model);
-            wordCompletion.insert(model);
+
+        // Breadth-first, so a state's failure target (always shallower) is final before its children
+        fail = new int[stateCount];
+        order = new int[stateCount];
+        int head = 0;
+        int tail = 1;
+        while (head < tail) {
+            int state = order[head++];
+            for (int i = 0; i < labels[state].length; i++) {
+                int child = targets[state][i];
+                fail[child] = state == 0 ? 0 : step(fail[state], labels[state][i]);
+                order[tail++] = child;
+            }
         }
-        return models;
     }
 
-    public List<Phone> searchAndRankPhones(String searchTerm) {
-        List<Phone> allPhones = phoneRepository.findAll();
-        Map<Phone, Integer> frequencyMap = new HashMap<>();
+    public List<String> getPatterns() {
+        return patterns;
+    }
 
-        // Count occurrences of the search term in each phone's model and company
-        for (Phone phone : allPhones) {
-            int count = countOccurrences(phone.getModel(), searchTerm) + countOccurrences(phone.getCompany(), searchTerm);
-            frequencyMap.put(phone, count);
-        }
+    public int stateCount() {
+        return fail.length;
+    }
 
-        // Sort phones based on frequency in descending order
-        return frequencyMap.entrySet().stream()
-                .filter(entry -> entry.getValue() > 0) // Only include phones with non-zero occurrences
-                .sorted(Map.Entry.<Phone, Integer>comparingByValue().reversed())
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toList());
+    public Counter newCounter() {
+        return new Counter();
     }
 
-    private int countOccurrences(String text, String searchTerm) {
-        if (text == null || searchTerm == null || searchTerm.isEmpty()) {
-            return 0;
+    private int step(int state, char c) {
+        while (true) {
+            if (state == 0 && c < ASCII) {
+                return rootAscii[c];
+            }
+            int next = child(state, c);
+            if (next >= 0) {
+                return next;
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = fail[state];
         }
-        return (text.toLowerCase().length() - text.toLowerCase().replace(searchTerm.toLowerCase(), "").length()) / searchTerm.length();
- 
     }
-public void demoSearchInFile() throws IOException {
-        String searchWord = "phone";  // Word to search for
-        String filePath = "C:\\Users\\Vidhi\\Documents\\abcd.txt";  // File to search in
-
-        System.out.println("[DEBUG] Starting demo search with word: " + searchWord + " in file: " + filePath);
-
-        List<String> results = searchWordInFile(searchWord, filePath);
 
-        // Debug: Output the results
-        if (results.isEmpty()) {
-            System.out.println("[DEBUG] No occurrences found for the word: " + searchWord);
-        } else {
-            System.out.println("[DEBUG] Occurrences of the word \"" + searchWord + "\":");
-            for (String result : results) {
-                System.out.println("[DEBUG] " + result);
+    private int child(int state, char c) {
+        char[] stateLabels = labels[state];
+        int low = 0;
+        int high = stateLabels.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (stateLabels[mid] < c) {
+                low = mid + 1;
+            } else if (stateLabels[mid] > c) {
+                high = mid - 1;
+            } else {
+                return targets[state][mid];
             }
         }
+        return -1;
     }
 
-    public List<String> searchWordInFile(String searchWord, String filePath) throws IOException {
-        List<String> results = new ArrayList<>();
+    // Occurrence counts over any number of texts; matches never span two texts
+    public final class Counter {
+        private final long[] visits = new long[fail.length];
 
-        // Debug: Check if search word is empty
-        if (searchWord == null || searchWord.trim().isEmpty()) {
-            System.out.println("[DEBUG] Search word is null or empty. No search will be performed.");
-            return results;  // If the search word is empty, return no results
+        public void scan(CharSequence text) {
+            int state = 0;
+            for (int i = 0; i < text.length(); i++) {
+                state = step(state, text.charAt(i));
+                visits[state]++;
+            }
         }
 
-        // Ensure searchWord is case-insensitive and trimmed
-        searchWord = searchWord.trim().toLowerCase();
-        System.out.println("[DEBUG] Search word after trimming and converting to lowercase: " + searchWord);
-
-        // Read the content of the file
-        System.out.println("[DEBUG] Reading file from path: " + filePath);
-        String content = documentFileReaderService.readFileContent(filePath).toLowerCase(); // Make content lowercase
+        // counts()[p] = occurrences of getPatterns().get(p). Every visit to a state is also an
+        // occurrence of each pattern on its failure chain, so visits are pushed up the chain once
+        // here (deepest states first) instead of walking it per character.
+        public long[] counts() {
+            long[] totals = visits.clone();
+            for (int i = order.length - 1; i > 0; i--) {
+                totals[fail[order[i]]] += totals[order[i]];
+            }
+            long[] counts = new long[terminal.length];
+            for (int p = 0; p < terminal.length; p++) {
+                counts[p] = totals[terminal[p]];
+            }
+            return counts;
+        }
+    }
+}
 
-        // Debug: Print the content being read from the file
-        System.out.println("[DEBUG] File content read from file: " + content.substring(0, Math.min(content.length(), 100)) + "...");
-        // Print the first 100 characters to avoid overwhelming the logs
 
-        // Use word boundaries to ensure whole word matches
-        String regex = "\\b" + Pattern.quote(searchWord) + "\\b";  // Ensure the word is matched as a whole (not part of another word)
-        System.out.println("[DEBUG] Regex pattern used for matching: " + regex);
 
-        Pattern pattern = Pattern.compile(regex);
-        Matcher matcher = pattern.matcher(content);
+//KMPAlgorithm:-------------------------------------------------------------------------------------------------------------
+package com.example.phone_comparison_backend.util;
 
-        // Find all occurrences of the searchWord in the content using regex
-        int count = 0;
-        while (matcher.find()) {
-            results.add("Found at index: " + matcher.start());
-            count++;
-            // Debug: Log each match's index
-            System.out.println("[DEBUG] Found match at index: " + matcher.start());
+public class KMPAlgorithm {
+    public static int[] computeLPS(String pattern) {
+        int[] lps = new int[pattern.length()];
+        int len = 0;
+        int i = 1;
+        
+        while (i < pattern.length()) {
+            if (pattern.charAt(i) == pattern.charAt(len)) {
+                len++;
+                lps[i] = len;
+                i++;
+            } else {
+                if (len != 0) {
+                    len = lps[len - 1];
+                } else {
+                    lps[i] = 0;
+                    i++;
+                }
+            }
         }
+        return lps;
+    }
 
-        // Debug: Print results
-        if (count == 0) {
-            System.out.println("[DEBUG] No matches found for the word: " + searchWord);
-        } else {
-            System.out.println("[DEBUG] Total matches found: " + count);
+    public static int countOccurrences(String text, String pattern) {
+        int[] lps = computeLPS(pattern);
+        int i = 0, j = 0, count = 0;
+        
+        while (i < text.length()) {
+            if (pattern.charAt(j) == text.charAt(i)) {
+                i++;
+                j++;
+            }
+            if (j == pattern.length()) {
+                count++;
+                j = lps[j - 1];
+            } else if (i < text.length() && pattern.charAt(j) != text.charAt(i)) {
+                if (j != 0) {
+                    j = lps[j - 1];
+                } else {
+                    i++;
+                }
+            }
         }
-
-        return results;
+        return count;
     }
-
-    
 }
 
 
 
+//FacetIndex.java:------------------------------------------------------------------------------------------------------
+package com.example.phone_comparison_backend.util;
 
-//PhoneSorterService.java:-------------------------------------------------------------------------------------------------
-package com.example.phone_comparison_backend.service;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
-import com.example.phone_comparison_backend.model.Phone;
-import org.springframework.stereotype.Service;
+// Facet index over documents 0..size-1: for every attribute, the set of documents holding each of its
+// values. A set is stored as a bitmap (one bit per document) or, when that would be larger, as a
+// sorted int[] of its documents. A filter ORs the selected values' sets within an attribute and ANDs
+// the attributes together in a dense bitmap, word by word; the per-value counts of what is left come
+// from popcounts of each set against that one result. Immutable and safe to share between threads.
+public final class FacetIndex {
 
-import java.util.List;
+    private final int size;
+    // attribute -> normalized (trimmed, lowercased) value -> documents, in attribute insertion order
+    private final Map<String, Map<String, ValueSet>> attributes;
 
-@Service
-public class PhoneSorterService {
+    private FacetIndex(int size, Map<String, Map<String, ValueSet>> attributes) {
+        this.size = size;
+        this.attributes = attributes;
+    }
 
-    // Quick Sort for price
-    public List<Phone> sortByPrice(List<Phone> phones, boolean ascending) {
-        quickSort(phones, 0, phones.size() - 1, ascending, "price");
-        return phones;
+    public int size() {
+        return size;
     }
 
-    // Quick Sort for model name
-    public List<Phone> sortByModel(List<Phone> phones, boolean ascending) {
-        quickSort(phones, 0, phones.size() - 1, ascending, "model");
-        return phones;
+    public Set<String> getAttributes() {
+        return attributes.keySet();
     }
 
-    // Quick Sort implementation
-    private void quickSort(List<Phone> phones, int low, int high, boolean ascending, String sortBy) {
-        if (low < high) {
-            int pivotIndex = partition(phones, low, high, ascending, sortBy);
-            quickSort(phones, low, pivotIndex - 1, ascending, sortBy);  // Left part
-            quickSort(phones, pivotIndex + 1, high, ascending, sortBy); // Right part
+    // Every document, as a bitmap to narrow down with filter() or and()
+    public long[] all() {
+        long[] bits = new long[words(size)];
+        Arrays.fill(bits, -1L);
+        if (size % 64 != 0) {
+            bits[bits.length - 1] = (1L << size) - 1;
         }
+        return bits;
     }
 
-    // Partition function for Quick Sort
-    private int partition(List<Phone> phones, int low, int high, boolean ascending, String sortBy) {
-        Phone pivot = phones.get(high); // Last element as pivot
-        int i = low - 1;
+    // Documents having, for every attribute in selections, one of its selected values (matched
+    // case-insensitively). Throws IllegalArgumentException for an attribute that is not indexed.
+    public long[] filter(Map<String, ? extends Collection<String>> selections) {
+        long[] result = all();
+        long[] union = new long[result.length];
+        for (Map.Entry<String, ? extends Collection<String>> selection : selections.entrySet()) {
+            Map<String, ValueSet> values = attributes.get(selection.getKey());
+            if (values == null) {
+                throw new IllegalArgumentException("Unknown attribute: " + selection.getKey() + ", expected one of " + attributes.keySet());
+            }
+            Arrays.fill(union, 0L);
+            for (String value : selection.getValue()) {
+                ValueSet set = values.get(normalize(value));
+                if (set != null) {
+                    set.orInto(union);
+                }
+            }
+            and(result, union);
+        }
+        return result;
+    }
 
-        for (int j = low; j < high; j++) {
-            boolean condition = false;
+    // target &= other
+    public static void and(long[] target, long[] other) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] &= other[i];
+        }
+    }
 
-            // Sort by price
-            if ("price".equalsIgnoreCase(sortBy)) {
-                condition = ascending ? phones.get(j).getPrice() < pivot.getPrice() : phones.get(j).getPrice() > pivot.getPrice();
-            }
+    public static int cardinality(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
 
-            // Sort by model
-            if ("model".equalsIgnoreCase(sortBy)) {
-                condition = ascending ? phones.get(j).getModel().compareTo(pivot.getModel()) < 0 : phones.get(j).getModel().compareTo(pivot.getModel()) > 0;
+    // The first limit documents of the bitmap, ascending
+    public static int[] toArray(long[] bits, int limit) {
+        int[] docs = new int[Math.min(limit, cardinality(bits))];
+        int count = 0;
+        for (int w = 0; w < bits.length && count < docs.length; w++) {
+            long word = bits[w];
+            while (word != 0 && count < docs.length) {
+                docs[count++] = w * 64 + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
             }
+        }
+        return docs;
+    }
 
-            // Swap if condition is met
-            if (condition) {
-                i++;
-                swap(phones, i, j);
+    // attribute -> value (as first seen at build time) -> number of documents in bits having it;
+    // values with no document left are omitted
+    public Map<String, Map<String, Integer>> counts(long[] bits) {
+        Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, ValueSet>> attribute : attributes.entrySet()) {
+            Map<String, Integer> valueCounts = new LinkedHashMap<>();
+            for (ValueSet set : attribute.getValue().values()) {
+                int count = set.countIn(bits);
+                if (count > 0) {
+                    valueCounts.put(set.label, count);
+                }
             }
+            counts.put(attribute.getKey(), valueCounts);
         }
-
-        // Swap pivot element to correct position
-        swap(phones, i + 1, high);
-
-        return i + 1;
+        return counts;
     }
 
-    // Utility method to swap two elements in the list
-    private void swap(List<Phone> phones, int i, int j) {
-        Phone temp = phones.get(i);
-        phones.set(i, phones.get(j));
-        phones.set(j, temp);
+    private static String normalize(String value) {
+        return value.trim().toLowerCase();
     }
-}
 
+    private static int words(int size) {
+        return (size + 63) >>> 6;
+    }
 
+    private static final class ValueSet {
+        final String label;
+        final long[] bits;   // Dense form, or null
+        final int[] docs;    // Sparse form (ascending), or null
 
-//SearchTermService.java:-----------------------------------------------------------------------------------------------
-package com.example.phone_comparison_backend.service;
+        ValueSet(String label, int[] docs, int count, int size) {
+            this.label = label;
+            // An int per document beats a bit per document below size / 32 documents
+            if (count < size / 32) {
+                this.bits = null;
+                this.docs = Arrays.copyOf(docs, count);
+            } else {
+                this.bits = new long[words(size)];
+                this.docs = null;
+                for (int i = 0; i < count; i++) {
+                    bits[docs[i] >>> 6] |= 1L << docs[i];
+                }
+            }
+        }
 
-import com.example.phone_comparison_backend.model.SearchTerm;
-import com.example.phone_comparison_backend.repository.SearchTermRepository;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Service;
+        void orInto(long[] target) {
+            if (bits != null) {
+                for (int i = 0; i < bits.length; i++) {
+                    target[i] |= bits[i];
+                }
+            } else {
+                for (int doc : docs) {
+                    target[doc >>> 6] |= 1L << doc;
+                }
+            }
+        }
 
-import java.util.Optional;
+        int countIn(long[] filter) {
+            int count = 0;
+            if (bits != null) {
+                for (int i = 0; i < bits.length; i++) {
+                    count += Long.bitCount(bits[i] & filter[i]);
+                }
+            } else {
+                for (int doc : docs) {
+                    if ((filter[doc >>> 6] & (1L << doc)) != 0) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+    }
 
-@Service
-public class SearchTermService {
+    public static final class Builder {
+        private final int size;
+        private final Map<String, Map<String, Values>> attributes = new LinkedHashMap<>();
 
-    @Autowired
-    private SearchTermRepository searchTermRepository;
+        public Builder(int size) {
+            this.size = size;
+        }
 
-    public void recordSearchTerm(String term) {
-        if (term == null || term.trim().isEmpty()) {
-            return;
+        // Declares an attribute, so it is filterable and reported even if no document has a value
+        public Builder attribute(String attribute) {
+            attributes.computeIfAbsent(attribute, a -> new TreeMap<>());
+            return this;
         }
 
-        term = term.toLowerCase(); // Normalize term for case-insensitive tracking
+        // Documents must be added in ascending order per value; null or blank values are skipped
+        public Builder add(String attribute, int doc, String value) {
+            Map<String, Values> values = attributes.computeIfAbsent(attribute, a -> new TreeMap<>());
+            if (value != null && !value.trim().isEmpty()) {
+                values.computeIfAbsent(normalize(value), v -> new Values(value.trim())).add(doc);
+            }
+            return this;
+        }
 
-        // Check if term already exists
-        Optional<SearchTerm> existingTerm = searchTermRepository.findByTerm(term);
-        if (existingTerm.isPresent()) {
-            SearchTerm searchTerm = existingTerm.get();
-            searchTerm.setFrequency(searchTerm.getFrequency() + 1);
-            searchTermRepository.save(searchTerm);
-        } else {
-            // Add new search term with frequency 1
-            searchTermRepository.save(new SearchTerm(term, 1));
+        public FacetIndex build() {
+            Map<String, Map<String, ValueSet>> built = new LinkedHashMap<>();
+            for (Map.Entry<String, Map<String, Values>> attribute : attributes.entrySet()) {
+                Map<String, ValueSet> values = new LinkedHashMap<>();
+                for (Map.Entry<String, Values> value : attribute.getValue().entrySet()) {
+                    Values docs = value.getValue();
+                    values.put(value.getKey(), new ValueSet(docs.label, docs.docs, docs.count, size));
+                }
+                built.put(attribute.getKey(), values);
+            }
+            return new FacetIndex(size, built);
         }
     }
 
-    public Iterable<SearchTerm> getAllSearchTerms() {
-        return searchTermRepository.findAll();
+    private static final class Values {
+        final String label;
+        int[] docs = new int[4];
+        int count;
+
+        Values(String label) {
+            this.label = label;
+        }
+
+        void add(int doc) {
+            if (count == docs.length) {
+                docs = Arrays.copyOf(docs, count * 2);
+            }
+            docs[count++] = doc;
+        }
     }
 }
 
 
 
-//SpellCheckService.java:----------------------------------------------------------------------------------------------------
-package com.example.phone_comparison_backend.service;
-
-import com.example.phone_comparison_backend.model.Phone;
-import com.example.phone_comparison_backend.repository.PhoneRepository;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Service;
+//PriceIndex.java:------------------------------------------------------------------------------------------------------
+package com.example.phone_comparison_backend.util;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Map;
 
-@Service
-public class SpellCheckService {
-
-    @Autowired
-    private PhoneRepository phoneRepository;
+// Price index as parallel primitive arrays: prices in cents and the document (phone ordinal) carrying
+// each, sorted by price, then document. The same pairs are also laid out group by group (brand), each
+// group sorted by price. A price range is two binary searches and the answer is the slice between
+// them, so "phones between $300 and $600" or "5 cheapest Samsungs" never touch the rest of the catalog.
+// Immutable and safe to share between threads.
+public final class PriceIndex {
+
+    private final long[] cents;          // Ascending
+    private final int[] docs;            // docs[i] is priced cents[i]
+    private final long[] groupCents;     // Group by group, each ascending
+    private final int[] groupDocs;
+    private final Map<String, int[]> groups = new HashMap<>();  // group -> { from, to } in groupCents
+
+    // cents[doc] < 0 means unknown, and such documents are left out; groups[doc] may be null. Prices
+    // above Integer.MAX_VALUE cents are left out too, so (price, doc) packs into one long for sorting.
+    public PriceIndex(long[] cents, String[] groups) {
+        long[] packed = new long[cents.length];
+        int count = 0;
+        for (int doc = 0; doc < cents.length; doc++) {
+            if (cents[doc] >= 0 && cents[doc] <= Integer.MAX_VALUE) {
+                packed[count++] = (cents[doc] << 32) | doc;
+            }
+        }
+        Arrays.sort(packed, 0, count);
+        this.cents = new long[count];
+        this.docs = new int[count];
+        for (int i = 0; i < count; i++) {
+            this.cents[i] = packed[i] >>> 32;
+            this.docs[i] = (int) packed[i];
+        }
 
-    private TrieNode root;
+        // Counting pass per group, then a stable scatter keeps every group in price order
+        Map<String, int[]> sizes = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            String group = groups[docs[i]];
+            if (group != null) {
+                sizes.computeIfAbsent(group, g -> new int[1])[0]++;
+            }
+        }
+        int offset = 0;
+        for (Map.Entry<String, int[]> size : sizes.entrySet()) {
+            this.groups.put(size.getKey(), new int[] {offset, offset});
+            offset += size.getValue()[0];
+        }
+        this.groupCents = new long[offset];
+        this.groupDocs = new int[offset];
+        for (int i = 0; i < count; i++) {
+            String group = groups[docs[i]];
+            if (group != null) {
+                int[] range = this.groups.get(group);
+                groupCents[range[1]] = this.cents[i];
+                groupDocs[range[1]] = docs[i];
+                range[1]++;
+            }
+        }
+    }
 
-    public SpellCheckService() {
-        this.root = new TrieNode();
+    // Documents with a known price
+    public int size() {
+        return cents.length;
     }
 
-    // Load the vocabulary into the Trie from the database
-    public void loadVocabulary() {
-        List<Phone> phones = phoneRepository.findAll();
-        for (Phone phone : phones) {
-            insertWord(phone.getModel().toLowerCase());
-            insertWord(phone.getCompany().toLowerCase()); // Load brand names too
+    // Documents priced within [minCents, maxCents], in the whole index (group == null) or in one group
+    public Slice range(String group, long minCents, long maxCents) {
+        if (group == null) {
+            return slice(cents, docs, 0, cents.length, minCents, maxCents);
         }
-        // Print all words loaded into the Trie
-        System.out.println("Words loaded into the Trie:");
-        List<String> allWords = getAllWordsFromTrie();
-        for (String word : allWords) {
-            System.out.println(word);
+        int[] range = groups.get(group);
+        if (range == null) {
+            return new Slice(cents, docs, 0, 0);
         }
+        return slice(groupCents, groupDocs, range[0], range[1], minCents, maxCents);
     }
 
-    // Insert a word into the Trie
-    private void insertWord(String word) {
-        TrieNode node = root;
-        for (char c : word.toCharArray()) {
-            if (!node.containsKey(c)) {
-                node.put(c, new TrieNode());
-            }
-            node = node.get(c);
+    private static Slice slice(long[] cents, int[] docs, int from, int to, long minCents, long maxCents) {
+        if (minCents > maxCents) {
+            return new Slice(cents, docs, from, from);
         }
-        node.setEndOfWord(true);
+        return new Slice(cents, docs, firstAtLeast(cents, from, to, minCents), firstAbove(cents, from, to, maxCents));
     }
 
-    // Method to check if a word exists in the Trie
-    public boolean checkIfWordExists(String word) {
-        TrieNode node = root;
-        for (char c : word.toCharArray()) {
-            if (!node.containsKey(c)) {
-                return false; // If a character is missing, the word doesn't exist
+    private static int firstAtLeast(long[] cents, int from, int to, long value) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cents[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
             }
-            node = node.get(c);
         }
-        return node.isEndOfWord(); // Return true only if it's the end of a valid word
+        return low;
     }
 
-    // Method to retrieve all words in the Trie
-    public List<String> getAllWordsFromTrie() {
-        List<String> result = new ArrayList<>();
-        collectWords(root, new StringBuilder(), result);
-        return result;
+    private static int firstAbove(long[] cents, int from, int to, long value) {
+        return value == Long.MAX_VALUE ? to : firstAtLeast(cents, from, to, value + 1);
     }
 
-    private void collectWords(TrieNode node, StringBuilder prefix, List<String> result) {
-        if (node.isEndOfWord()) {
-            result.add(prefix.toString());
+    // Consecutive run of the index, cheapest first; index 0 .. size() - 1
+    public static final class Slice {
+        private final long[] cents;
+        private final int[] docs;
+        private final int from;
+        private final int to;
+
+        private Slice(long[] cents, int[] docs, int from, int to) {
+            this.cents = cents;
+            this.docs = docs;
+            this.from = from;
+            this.to = to;
         }
-        for (Map.Entry<Character, TrieNode> entry : node.children.entrySet()) {
-            prefix.append(entry.getKey());
-            collectWords(entry.getValue(), prefix, result);
-            prefix.deleteCharAt(prefix.length() - 1);
+
+        public int size() {
+            return to - from;
+        }
+
+        public int doc(int index) {
+            return docs[from + index];
+        }
+
+        public long cents(int index) {
+            return cents[from + index];
         }
     }
+}
 
-    // Suggest words and print edit distances for debugging
-    public List<String> suggestWords(String word) {
-        List<String> suggestions = new ArrayList<>();
-        int minDistance = Integer.MAX_VALUE;
-        String closestMatch = null;
 
-        // List to hold phones related to the closest match
-        List<Phone> matchingPhones = new ArrayList<>();
 
-        List<Phone> phones = phoneRepository.findAll();
-        System.out.println("Calculating edit distances for word: " + word);
+//SpecParser.java:------------------------------------------------------------------------------------------------------
+package com.example.phone_comparison_backend.util;
 
-        for (Phone phone : phones) {
-            String phoneModel = phone.getModel().toLowerCase();
-            String phoneCompany = phone.getCompany().toLowerCase();
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
-            // Calculate edit distance for model and company
-            int modelDistance = calculateEditDistance(word.toLowerCase(), phoneModel);
-            int companyDistance = calculateEditDistance(word.toLowerCase(), phoneCompany);
+// Parses the catalog's free-text spec strings ("8 GB", "Yes", "5.3; A2DP") into normalized numbers.
+// Every parser returns null when the text holds nothing it recognizes, so "unknown" stays distinct
+// from zero.
+public final class SpecParser {
 
-            System.out.println("Edit distance between '" + word + "' and model '" + phoneModel + "': " + modelDistance);
-            System.out.println("Edit distance between '" + word + "' and brand '" + phoneCompany + "': " + companyDistance);
+    private static final Pattern SIZE = Pattern.compile("(\\d+(?:\\.\\d+)?)\\s*([tgmk]b)?", Pattern.CASE_INSENSITIVE);
+    private static final Pattern NUMBER = Pattern.compile("\\d+(?:\\.\\d+)?");
 
-            if (modelDistance < minDistance) {
-                minDistance = modelDistance;
-                closestMatch = phoneModel;
-                matchingPhones.clear(); // Clear previously matched phones
-                matchingPhones.add(phone); // Add the matched phone
-            } else if (modelDistance == minDistance) {
-                matchingPhones.add(phone); // Add this phone to the matching phones list
-            }
+    private SpecParser() {
+    }
 
-            if (companyDistance < minDistance) {
-                minDistance = companyDistance;
-                closestMatch = phoneCompany;
-                matchingPhones.clear(); // Clear previously matched phones
-                matchingPhones.add(phone); // Add the matched phone
-            } else if (companyDistance == minDistance) {
-                matchingPhones.add(phone); // Add this phone to the matching phones list
-            }
+    // First size in the text, in MB: "8 GB" -> 8192, "512MB" -> 512, "1 TB" -> 1048576. A number without
+    // a unit is taken as GB, which is how the catalog lists RAM and storage.
+    public static Integer parseMegabytes(String text) {
+        if (text == null) {
+            return null;
+        }
+        Matcher matcher = SIZE.matcher(text);
+        if (!matcher.find()) {
+            return null;
         }
+        double value = Double.parseDouble(matcher.group(1));
+        String unit = matcher.group(2) == null ? "gb" : matcher.group(2).toLowerCase(Locale.ROOT);
+        double megabytes;
+        switch (unit) {
+            case "tb":
+                megabytes = value * 1024 * 1024;
+                break;
+            case "mb":
+                megabytes = value;
+                break;
+            case "kb":
+                megabytes = value / 1024;
+                break;
+            default:
+                megabytes = value * 1024;
+        }
+        return megabytes > Integer.MAX_VALUE ? null : (int) Math.round(megabytes);
+    }
 
-        // If a closest match is found, return suggestions and matching phones
-        if (matchingPhones.size() > 0) {
-            for (Phone phone : matchingPhones) {
-                suggestions.add(phone.getModel()); // Add matching phone models to the suggestions
-            }
+    // "Yes" / "Supported" -> true, "No" / "Not supported" -> false
+    public static Boolean parseSupported(String text) {
+        if (text == null) {
+            return null;
+        }
+        String value = text.trim().toLowerCase(Locale.ROOT);
+        if (value.startsWith("no") || value.startsWith("unsupported") || value.equals("false")) {
+            return false;
         }
+        if (value.startsWith("yes") || value.startsWith("supported") || value.equals("true")) {
+            return true;
+        }
+        return null;
+    }
 
-        System.out.println("Closest match(es): ");
-        for (Phone phone : matchingPhones) {
-            System.out.println("Model: " + phone.getModel() + ", Brand: " + phone.getCompany());
+    // First version number in the text: "5.3; A2DP; LE" -> 5.3, "v5" -> 5.0
+    public static Float parseVersion(String text) {
+        if (text == null) {
+            return null;
         }
+        Matcher matcher = NUMBER.matcher(text);
+        return matcher.find() ? Float.parseFloat(matcher.group()) : null;
+    }
 
-        return suggestions;
+    // A stored Float price in whole cents, rounded. The CSV loader stores 0.0 for a missing or invalid
+    // price, so anything not above zero is treated as unknown, as in parsePriceCents.
+    public static Long toCents(Float price) {
+        return price == null || price <= 0 ? null : Math.round(price.doubleValue() * 100);
     }
 
-    // Calculate the edit distance (Levenshtein distance)
-    private int calculateEditDistance(String word1, String word2) {
-        int[][] dp = new int[word1.length() + 1][word2.length() + 1];
+    // A catalog price ("Rs. 1,299", "12999.00") in whole cents: the first number, commas ignored.
+    // Null when there is none or it is not above zero, the same unknown rule as toCents.
+    public static Long parsePriceCents(String text) {
+        Long cents = parseCents(text);
+        return cents == null || cents <= 0 ? null : cents;
+    }
 
-        for (int i = 0; i <= word1.length(); i++) {
-            dp[i][0] = i;
-        }
-        for (int j = 0; j <= word2.length(); j++) {
-            dp[0][j] = j;
+    // A price as typed by a user ("$1,299.99", "300") in whole cents
+    public static Long parseCents(String text) {
+        if (text == null) {
+            return null;
         }
+        Matcher matcher = NUMBER.matcher(text.replace(",", ""));
+        return matcher.find() ? Math.round(Double.parseDouble(matcher.group()) * 100) : null;
+    }
+}
+
+
+
+//TrigramIndex.java:----------------------------------------------------------------------------------------------------
+package com.example.phone_comparison_backend.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
-        for (int i = 1; i <= word1.length(); i++) {
-            for (int j = 1; j <= word2.length(); j++) {
-                int cost = (word1.charAt(i - 1) == word2.charAt(j - 1)) ? 0 : 1;
-                dp[i][j] = Math.min(Math.min(dp[i - 1][j] + 1, dp[i][j - 1] + 1), dp[i - 1][j - 1] + cost);
+// Trigram index over a fixed array of strings, documents being array positions: for every 3-char
+// substring, the ascending list of documents that contain it (stored back to back in one int[]).
+// A pattern of 3+ chars can only occur in documents holding all of its trigrams, so a query
+// intersects those lists, shortest first, and verifies just the survivors. Patterns shorter than a
+// trigram fall back to checking every document. Immutable and safe to share between threads.
+public final class TrigramIndex {
+    private static final int[] NONE = new int[0];
+
+    private final String[] texts;
+    private final long[] keys;       // Sorted trigram keys, three chars packed into 48 bits
+    private final int[] start;       // start[k]..start[k + 1] in docs
+    private final int[] docs;
+
+    public TrigramIndex(String[] texts) {
+        this.texts = texts.clone();
+        Map<Long, int[]> lists = new HashMap<>();  // key -> { count, doc, doc, ... }
+        for (int doc = 0; doc < texts.length; doc++) {
+            String text = texts[doc];
+            for (int i = 0; i + 3 <= text.length(); i++) {
+                int[] list = lists.computeIfAbsent(key(text, i), k -> new int[4]);
+                // Documents arrive in order, so a repeat of the trigram in this one is the last entry
+                if (list[0] > 0 && list[list[0]] == doc) {
+                    continue;
+                }
+                if (list[0] + 1 == list.length) {
+                    list = Arrays.copyOf(list, list.length * 2);
+                    lists.put(key(text, i), list);
+                }
+                list[++list[0]] = doc;
             }
         }
 
-        return dp[word1.length()][word2.length()];
+        keys = new long[lists.size()];
+        int k = 0;
+        int total = 0;
+        for (Map.Entry<Long, int[]> entry : lists.entrySet()) {
+            keys[k++] = entry.getKey();
+            total += entry.getValue()[0];
+        }
+        Arrays.sort(keys);
+        start = new int[keys.length + 1];
+        docs = new int[total];
+        for (k = 0; k < keys.length; k++) {
+            int[] list = lists.get(keys[k]);
+            System.arraycopy(list, 1, docs, start[k], list[0]);
+            start[k + 1] = start[k] + list[0];
+        }
     }
 
-    // Trie Node class
-    private static class TrieNode {
-        private Map<Character, TrieNode> children;
-        private boolean isEndOfWord;
+    public int size() {
+        return texts.length;
+    }
 
-        public TrieNode() {
-            children = new HashMap<>();
-            isEndOfWord = false;
-        }
+    public int trigramCount() {
+        return keys.length;
+    }
 
-        public boolean containsKey(char c) {
-            return children.containsKey(c);
-        }
+    // Ascending documents whose text contains pattern (case-sensitive; normalize both sides first)
+    public int[] contains(String pattern) {
+        return search(pattern, false);
+    }
+
+    // Ascending documents whose text is exactly value
+    public int[] equalTo(String value) {
+        return search(value, true);
+    }
 
-        public TrieNode get(char c) {
-            return children.get(c);
+    private int[] search(String pattern, boolean whole) {
+        if (pattern.length() < 3) {
+            return scan(pattern, whole);
+        }
+        // One list per distinct trigram of the pattern; a trigram nobody has means no match
+        int gramCount = pattern.length() - 2;
+        int[] lists = new int[gramCount];
+        int distinct = 0;
+        for (int i = 0; i < gramCount; i++) {
+            int k = Arrays.binarySearch(keys, key(pattern, i));
+            if (k < 0) {
+                return NONE;
+            }
+            boolean seen = false;
+            for (int j = 0; j < distinct && !seen; j++) {
+                seen = lists[j] == k;
+            }
+            if (!seen) {
+                lists[distinct++] = k;
+            }
+        }
+        Integer[] byLength = new Integer[distinct];
+        for (int i = 0; i < distinct; i++) {
+            byLength[i] = lists[i];
         }
+        Arrays.sort(byLength, (a, b) -> Integer.compare(start[a + 1] - start[a], start[b + 1] - start[b]));
 
-        public void put(char c, TrieNode node) {
-            children.put(c, node);
+        int[] candidates = Arrays.copyOfRange(docs, start[byLength[0]], start[byLength[0] + 1]);
+        int count = candidates.length;
+        for (int i = 1; i < distinct && count > 0; i++) {
+            count = intersect(candidates, count, start[byLength[i]], start[byLength[i] + 1]);
         }
 
-        public boolean isEndOfWord() {
-            return isEndOfWord;
+        int matches = 0;
+        for (int i = 0; i < count; i++) {
+            String text = texts[candidates[i]];
+            if (whole ? text.equals(pattern) : text.contains(pattern)) {
+                candidates[matches++] = candidates[i];
+            }
+        }
+        return Arrays.copyOf(candidates, matches);
+    }
+
+    // Keeps the candidates also present in docs[from..to); gallops through the (longer) list
+    private int intersect(int[] candidates, int count, int from, int to) {
+        int kept = 0;
+        int position = from;
+        for (int i = 0; i < count && position < to; i++) {
+            int target = candidates[i];
+            int step = 1;
+            int high = position;
+            while (high < to && docs[high] < target) {
+                position = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            high = Math.min(high, to - 1);
+            while (position < high) {
+                int mid = (position + high) >>> 1;
+                if (docs[mid] < target) {
+                    position = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            if (position < to && docs[position] == target) {
+                candidates[kept++] = target;
+                position++;
+            }
         }
+        return kept;
+    }
 
-        public void setEndOfWord(boolean endOfWord) {
-            isEndOfWord = endOfWord;
+    private int[] scan(String pattern, boolean whole) {
+        int[] matches = new int[texts.length];
+        int count = 0;
+        for (int doc = 0; doc < texts.length; doc++) {
+            if (whole ? texts[doc].equals(pattern) : texts[doc].contains(pattern)) {
+                matches[count++] = doc;
+            }
         }
+        return Arrays.copyOf(matches, count);
     }
-}
 
+    private static long key(String text, int i) {
+        return ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+    }
+}
 
 
-//util:
 
-//KMPAlgorithm:-------------------------------------------------------------------------------------------------------------
+//SuffixArray.java:-----------------------------------------------------------------------------------------------------
 package com.example.phone_comparison_backend.util;
 
-public class KMPAlgorithm {
-    public static int[] computeLPS(String pattern) {
-        int[] lps = new int[pattern.length()];
-        int len = 0;
-        int i = 1;
-        
-        while (i < pattern.length()) {
-            if (pattern.charAt(i) == pattern.charAt(len)) {
-                len++;
-                lps[i] = len;
-                i++;
+import java.util.Arrays;
+
+// Suffix array over a fixed text: the start positions of all suffixes in lexicographic order. All
+// occurrences of a pattern are the suffixes it prefixes, which form one contiguous range, so counting
+// them is two binary searches, O(m log n) whatever the text length. Built by prefix doubling with
+// radix passes, O(n log n). Immutable and safe to share between threads.
+public final class SuffixArray {
+    private final String text;
+    private final int[] suffixes;
+
+    public SuffixArray(String text) {
+        this.text = text;
+        this.suffixes = build(text);
+    }
+
+    public int length() {
+        return text.length();
+    }
+
+    // Number of (possibly overlapping) occurrences of pattern in the text; 0 for an empty pattern
+    public int count(CharSequence pattern) {
+        if (pattern.length() == 0) {
+            return 0;
+        }
+        return rankAfter(pattern, true) - rankAfter(pattern, false);
+    }
+
+    // Number of suffixes ordered before the pattern, also counting the ones it prefixes if asked
+    private int rankAfter(CharSequence pattern, boolean includePrefixed) {
+        int low = 0;
+        int high = suffixes.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(suffixes[mid], pattern);
+            if (cmp < 0 || (cmp == 0 && includePrefixed)) {
+                low = mid + 1;
             } else {
-                if (len != 0) {
-                    len = lps[len - 1];
-                } else {
-                    lps[i] = 0;
-                    i++;
-                }
+                high = mid;
             }
         }
-        return lps;
+        return low;
     }
 
-    public static int countOccurrences(String text, String pattern) {
-        int[] lps = computeLPS(pattern);
-        int i = 0, j = 0, count = 0;
-        
-        while (i < text.length()) {
-            if (pattern.charAt(j) == text.charAt(i)) {
-                i++;
-                j++;
+    // Compares the suffix with the pattern over the pattern's length; 0 means the pattern prefixes it
+    private int compare(int suffix, CharSequence pattern) {
+        int length = Math.min(pattern.length(), text.length() - suffix);
+        for (int i = 0; i < length; i++) {
+            int diff = text.charAt(suffix + i) - pattern.charAt(i);
+            if (diff != 0) {
+                return diff;
             }
-            if (j == pattern.length()) {
-                count++;
-                j = lps[j - 1];
-            } else if (i < text.length() && pattern.charAt(j) != text.charAt(i)) {
-                if (j != 0) {
-                    j = lps[j - 1];
-                } else {
-                    i++;
+        }
+        return length == pattern.length() ? 0 : -1;
+    }
+
+    private static int[] build(String text) {
+        int n = text.length();
+        int[] suffixes = new int[n];
+        if (n == 0) {
+            return suffixes;
+        }
+        int[] rank = new int[n];
+        int[] scratch = new int[n];
+        int[] buckets = new int[Math.max(Character.MAX_VALUE + 1, n) + 1];
+
+        // Rank 0: the first char
+        for (int i = 0; i < n; i++) {
+            rank[i] = text.charAt(i);
+        }
+        int classes = Character.MAX_VALUE + 1;
+        for (int i = 0; i < n; i++) {
+            scratch[i] = i;
+        }
+        countingSort(scratch, suffixes, rank, buckets, classes);
+
+        // Invariant: suffixes is sorted by the first k chars and rank[i] is the class of suffix i
+        for (int k = 1; ; k <<= 1) {
+            // Order by the second half (rank[i + k], missing halves first), then stably by the first
+            int p = 0;
+            for (int i = n - k; i < n; i++) {
+                scratch[p++] = i;
+            }
+            for (int j = 0; j < n; j++) {
+                if (suffixes[j] >= k) {
+                    scratch[p++] = suffixes[j] - k;
                 }
             }
+            countingSort(scratch, suffixes, rank, buckets, classes);
+
+            scratch[suffixes[0]] = 0;
+            for (int j = 1; j < n; j++) {
+                int a = suffixes[j - 1];
+                int b = suffixes[j];
+                boolean same = rank[a] == rank[b]
+                        && (a + k < n ? rank[a + k] : -1) == (b + k < n ? rank[b + k] : -1);
+                scratch[b] = scratch[a] + (same ? 0 : 1);
+            }
+            int[] swap = rank;
+            rank = scratch;
+            scratch = swap;
+            classes = rank[suffixes[n - 1]] + 1;
+            if (classes == n || k >= n) {
+                return suffixes;
+            }
+        }
+    }
+
+    // Stable sort of the positions in input by key[position] (0 <= key < classes) into output
+    private static void countingSort(int[] input, int[] output, int[] key, int[] buckets, int classes) {
+        Arrays.fill(buckets, 0, classes + 1, 0);
+        for (int position : input) {
+            buckets[key[position] + 1]++;
+        }
+        for (int c = 0; c < classes; c++) {
+            buckets[c + 1] += buckets[c];
+        }
+        for (int position : input) {
+            output[buckets[key[position]]++] = position;
         }
-        return count;
     }
 }
 
@@ -1794,150 +7634,202 @@ package com.example.phone_comparison_backend.util;
 
 import org.springframework.stereotype.Service;
 
-import java.util.HashSet;
-import java.util.List;
 import java.util.ArrayList;
-import java.util.Set;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.ToLongFunction;
 
 @Service
 public class WordCompletion {
 
-    private Node root;
-
-    // Node structure for AVL tree
-    private static class Node {
-        String word;
-        Node left, right;
-        int height;
-
-        Node(String word) {
-            this.word = word;
-            this.height = 1; // New nodes have height 1
+    // Immutable completion index: distinct lowercase words in sorted order, so all completions of
+    // a prefix form one contiguous range. Rebuilt off the request path and swapped in atomically.
+    private static final class Index {
+        final String[] keys;     // Lowercase, sorted, distinct
+        final String[] display;  // Original spelling of each key
+        final long[] scores;     // Ranking score of each key
+        final int[] maxTree;     // Segment tree: each node holds the position of the best score below it
+        final int leafOffset;
+
+        Index(String[] keys, String[] display, long[] scores) {
+            this.keys = keys;
+            this.display = display;
+            this.scores = scores;
+
+            int size = 1;
+            while (size < keys.length) {
+                size <<= 1;
+            }
+            this.leafOffset = size;
+            this.maxTree = new int[2 * size];
+            Arrays.fill(maxTree, -1);
+            for (int i = 0; i < keys.length; i++) {
+                maxTree[size + i] = i;
+            }
+            for (int node = size - 1; node >= 1; node--) {
+                maxTree[node] = better(maxTree[2 * node], maxTree[2 * node + 1]);
+            }
         }
-    }
-
-    // Insert a word into the AVL Tree
-    public void insert(String word) {
-        root = insert(root, word.toLowerCase()); // Insert word in lowercase to handle case-insensitivity
-        System.out.println("Inserted word: " + word.toLowerCase()); // Debugging
-    }
 
-    // Helper function to insert word into the AVL tree
-    private Node insert(Node node, String word) {
-        if (node == null) {
-            return new Node(word);  // Create a new node for the word
+        // Higher score wins; ties go to the alphabetically first word
+        int better(int a, int b) {
+            if (a < 0) {
+                return b;
+            }
+            if (b < 0) {
+                return a;
+            }
+            if (scores[a] != scores[b]) {
+                return scores[a] > scores[b] ? a : b;
+            }
+            return Math.min(a, b);
         }
 
-        // Insert the word in the correct place in the tree
-        if (word.compareTo(node.word) < 0) {
-            node.left = insert(node.left, word);  // Insert into left subtree
-        } else if (word.compareTo(node.word) > 0) {
-            node.right = insert(node.right, word);  // Insert into right subtree
-        } else {
-            // Word already exists in the tree, no need to insert again
-            return node;
+        // Position of the best-scored key in [from, to), or -1 if the range is empty
+        int bestIn(int from, int to) {
+            int best = -1;
+            for (int left = from + leafOffset, right = to + leafOffset; left < right; left >>= 1, right >>= 1) {
+                if ((left & 1) == 1) {
+                    best = better(best, maxTree[left++]);
+                }
+                if ((right & 1) == 1) {
+                    best = better(best, maxTree[--right]);
+                }
+            }
+            return best;
         }
+    }
 
-        // Update the height of the current node
-        node.height = 1 + Math.max(getHeight(node.left), getHeight(node.right));
+    private volatile Index index = new Index(new String[0], new String[0], new long[0]);
 
-        // Balance the node if needed
-        int balance = getBalance(node);
+    // Rebuild the index from a fresh word list (e.g. every model in the catalog) and publish it
+    public void rebuild(Collection<String> words) {
+        rebuild(words, word -> 0L);
+    }
 
-        // Balance the tree and apply rotations if needed
-        if (balance > 1 && word.compareTo(node.left.word) < 0) {
-            return rightRotate(node);  // Right rotation if left subtree is taller
-        }
-        if (balance < -1 && word.compareTo(node.right.word) > 0) {
-            return leftRotate(node);  // Left rotation if right subtree is taller
-        }
-        if (balance > 1 && word.compareTo(node.left.word) > 0) {
-            node.left = leftRotate(node.left);
-            return rightRotate(node);  // Left-right rotation
-        }
-        if (balance < -1 && word.compareTo(node.right.word) < 0) {
-            node.right = rightRotate(node.right);
-            return leftRotate(node);  // Right-left rotation
+    // Rebuild the index, ranking each word by the given score (e.g. its search frequency)
+    public synchronized void rebuild(Collection<String> words, ToLongFunction<String> scorer) {
+        TreeMap<String, String> sorted = new TreeMap<>();
+        for (String word : words) {
+            if (word != null && !word.trim().isEmpty()) {
+                sorted.putIfAbsent(word.toLowerCase(), word);
+            }
         }
-
-        return node;  // Return the unchanged node if no rotation is needed
+        String[] keys = sorted.keySet().toArray(new String[0]);
+        index = new Index(keys, sorted.values().toArray(new String[0]), score(keys, scorer));
+        System.out.println("Word completion index built with " + sorted.size() + " words.");
     }
 
-    // Helper functions for balancing the AVL tree (left and right rotations)
-    private Node leftRotate(Node x) {
-        Node y = x.right;
-        Node T2 = y.left;
-        y.left = x;
-        x.right = T2;
-        x.height = Math.max(getHeight(x.left), getHeight(x.right)) + 1;
-        y.height = Math.max(getHeight(y.left), getHeight(y.right)) + 1;
-        return y;
+    // Re-rank the current words without rebuilding the word list
+    public synchronized void rescore(ToLongFunction<String> scorer) {
+        Index current = index;
+        index = new Index(current.keys, current.display, score(current.keys, scorer));
     }
 
-    private Node rightRotate(Node y) {
-        Node x = y.left;
-        Node T2 = x.right;
-        x.right = y;
-        y.left = T2;
-        y.height = Math.max(getHeight(y.left), getHeight(y.right)) + 1;
-        x.height = Math.max(getHeight(x.left), getHeight(x.right)) + 1;
-        return x;
+    // Add per-word deltas (e.g. search counts just written) to the current scores; words not in
+    // the index are ignored, and nothing is republished when none of them is
+    public synchronized void addScores(Map<String, Long> deltas) {
+        Index current = index;
+        long[] scores = null;
+        for (Map.Entry<String, Long> entry : deltas.entrySet()) {
+            int position = entry.getKey() == null ? -1 : Arrays.binarySearch(current.keys, entry.getKey().toLowerCase());
+            if (position >= 0) {
+                if (scores == null) {
+                    scores = current.scores.clone();
+                }
+                scores[position] += entry.getValue();
+            }
+        }
+        if (scores != null) {
+            index = new Index(current.keys, current.display, scores);
+        }
     }
 
-    private int getHeight(Node node) {
-        return node == null ? 0 : node.height;
+    private static long[] score(String[] keys, ToLongFunction<String> scorer) {
+        long[] scores = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            scores[i] = scorer.applyAsLong(keys[i]);
+        }
+        return scores;
     }
 
-    private int getBalance(Node node) {
-        return node == null ? 0 : getHeight(node.left) - getHeight(node.right);
+    public int size() {
+        return index.keys.length;
     }
 
-    // Find all words starting with the given prefix
+    // Find all words starting with the given prefix (lowercase, sorted)
     public List<String> findSuggestions(String prefix) {
-        Set<String> suggestionsSet = new HashSet<>();  // Use a Set to ensure uniqueness
-        findSuggestions(root, prefix.toLowerCase(), suggestionsSet);  // Pass prefix in lowercase for consistency
-        System.out.println("Total unique suggestions found: " + suggestionsSet.size()); // Debugging
-        return new ArrayList<>(suggestionsSet);  // Convert the Set back to a List
+        Index current = index;
+        return collectRange(current, current.keys, prefix.toLowerCase());
     }
 
-    // Helper function to find suggestions starting with the given prefix
-    private void findSuggestions(Node node, String prefix, Set<String> suggestions) {
-        if (node == null) {
-            return;  // Base case: return if node is null
-        }
-
-        // Debugging: print the current node being processed
-        System.out.println("Processing node: " + node.word);
+    // Same range as findSuggestions, but with the words in their original spelling
+    public List<String> findOriginals(String prefix) {
+        Index current = index;
+        return collectRange(current, current.display, prefix.toLowerCase());
+    }
 
-        // Only process nodes that may contain words starting with the prefix
-        if (node.word.startsWith(prefix)) {
-            suggestions.add(node.word);  // Add to suggestions if it matches the prefix
-            System.out.println("Added suggestion: " + node.word);  // Debugging
+    private List<String> collectRange(Index current, String[] values, String prefix) {
+        List<String> result = new ArrayList<>();
+        for (int i = lowerBound(current.keys, prefix); i < current.keys.length && current.keys[i].startsWith(prefix); i++) {
+            result.add(values[i]);
         }
+        return result;
+    }
 
-        // Search left subtree if the prefix is lexicographically less than the node word
-        if (prefix.compareTo(node.word) < 0) {
-            System.out.println("Going left from node: " + node.word);  // Debugging
-            findSuggestions(node.left, prefix, suggestions);
+    // The k best-scored completions of prefix, best first. Ranges are split around their best
+    // position and only the most promising range is opened next, so the cost is O(k log n)
+    // however many words share the prefix.
+    public List<String> findTopSuggestions(String prefix, int k) {
+        Index current = index;
+        String normalizedPrefix = prefix.toLowerCase();
+        int from = lowerBound(current.keys, normalizedPrefix);
+        int to = upperBound(current.keys, normalizedPrefix, from);
+
+        List<String> result = new ArrayList<>(Math.min(k, Math.max(0, to - from)));
+        // Each entry is {from, to, best position}; highest score first
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> current.scores[a[2]] != current.scores[b[2]]
+                ? Long.compare(current.scores[b[2]], current.scores[a[2]])
+                : Integer.compare(a[2], b[2]));
+        offerRange(current, ranges, from, to);
+        while (result.size() < k && !ranges.isEmpty()) {
+            int[] range = ranges.poll();
+            result.add(current.keys[range[2]]);
+            offerRange(current, ranges, range[0], range[2]);
+            offerRange(current, ranges, range[2] + 1, range[1]);
         }
+        return result;
+    }
 
-        // Search right subtree if the prefix is lexicographically greater than the node word
-        if (prefix.compareTo(node.word) > 0) {
-            System.out.println("Going right from node: " + node.word);  // Debugging
-            findSuggestions(node.right, prefix, suggestions);
+    private static void offerRange(Index current, PriorityQueue<int[]> ranges, int from, int to) {
+        if (from < to) {
+            ranges.offer(new int[]{from, to, current.bestIn(from, to)});
         }
+    }
 
-        // Additionally, always explore both subtrees if the current node matches the prefix
-        if (node.word.startsWith(prefix)) {
-            if (node.left != null) {
-                System.out.println("Exploring left subtree of " + node.word);  // Debugging
-                findSuggestions(node.left, prefix, suggestions);
-            }
-            if (node.right != null) {
-                System.out.println("Exploring right subtree of " + node.word);  // Debugging
-                findSuggestions(node.right, prefix, suggestions);
+    // First position whose key is >= prefix
+    private static int lowerBound(String[] keys, String prefix) {
+        int position = Arrays.binarySearch(keys, prefix);
+        return position >= 0 ? position : -position - 1;
+    }
+
+    // First position at or after from whose key does not start with prefix
+    private static int upperBound(String[] keys, String prefix, int from) {
+        int low = from;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].startsWith(prefix)) {
+                low = mid + 1;
+            } else {
+                high = mid;
             }
         }
+        return low;
     }
 }
 
@@ -2344,14 +8236,8 @@ document.getElementById('compareButton').addEventListener('click', function() {
 });
 
 document.addEventListener('DOMContentLoaded', () => {
-    // Fetch data from the backend
-    fetch('http://localhost:8080/phones')
-        .then(response => {
-            if (!response.ok) {
-                throw new Error('API error: ' + response.statusText);
-            }
-            return response.json();
-        })
+    // Fetch the lightweight phone list from the backend, one page at a time
+    fetchPhoneSummaries()
         .then(data => {
             populateSelect('phone1Select', data);
             populateSelect('phone2Select', data);
@@ -2361,6 +8247,25 @@ document.addEventListener('DOMContentLoaded', () => {
         });
 });
 
+// Function to collect every page of phone summaries (id, model, price, company)
+async function fetchPhoneSummaries() {
+    const phones = [];
+    let cursor = null;
+
+    do {
+        const url = 'http://localhost:8080/phones/page?view=summary&size=500' + (cursor !== null ? `&after=${cursor}` : '');
+        const response = await fetch(url);
+        if (!response.ok) {
+            throw new Error('API error: ' + response.statusText);
+        }
+        const page = await response.json();
+        phones.push(...page.items);
+        cursor = page.nextCursor;
+    } while (cursor !== null && cursor !== undefined);
+
+    return phones;
+}
+
 // Function to populate the dropdown
 function populateSelect(selectId, phones) {
     const selectElement = document.getElementById(selectId);
@@ -3993,12 +9898,24 @@ th {
 
 //application.properties:-----------------------------------------------------------------------------------------------
 spring.application.name=phone-comparison-backend
-spring.datasource.url=jdbc:mysql://localhost:3306/phone_db
+spring.datasource.url=jdbc:mysql://localhost:3306/phone_db?rewriteBatchedStatements=true
 spring.datasource.username=root
 spring.datasource.password=root
 spring.datasource.driver-class-name=com.mysql.cj.jdbc.Driver
 spring.jpa.hibernate.ddl-auto=update
 spring.jpa.show-sql=true
+phones.page.default-size=50
+phones.page.max-size=500
+search.frequency.max-terms=10000
+search.terms.flush-interval-ms=5000
+search.terms.flush-threshold=1000
+search.trending.capacity=100
+search.trending.drain-interval-ms=1000
+catalog.reload.min-interval-ms=30000
+spring.mvc.async.request-timeout=600000
+textfiles.directory=TextFiles
+textfiles.index-directory=TextFilesIndex
+textfiles.watch=true
 
 
 